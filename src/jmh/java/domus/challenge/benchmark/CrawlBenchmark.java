@@ -0,0 +1,87 @@
+package domus.challenge.benchmark;
+
+import domus.challenge.catalog.DirectorCounter;
+import domus.challenge.catalog.DirectorIndex;
+import domus.challenge.client.DecodeMode;
+import domus.challenge.client.ExecutionMode;
+import domus.challenge.client.MovieCatalogClient;
+import domus.challenge.config.CatalogProperties;
+import domus.challenge.config.UpstreamProperties;
+import domus.challenge.config.WebClientConfig;
+import domus.challenge.support.StubMovieApi;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Full crawl of a local stub upstream: HTTP, decoding and counting together
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CrawlBenchmark {
+
+    @Param({"10", "200"})
+    private int pages;
+
+    @Param({"0", "20"})
+    private int latencyMillis;
+
+    @Param({"PROJECTION", "POJO"})
+    private DecodeMode decodeMode;
+
+    @Param({"REACTIVE", "VIRTUAL_THREADS"})
+    private ExecutionMode execution;
+
+    private StubMovieApi upstream;
+    private ConnectionProvider connectionProvider;
+    private MovieCatalogClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        upstream = new StubMovieApi(pages, 10, 500).start();
+        upstream.setLatency(Duration.ofMillis(latencyMillis));
+
+        UpstreamProperties upstreamProperties = new UpstreamProperties();
+        upstreamProperties.setBaseUrl(upstream.baseUrl());
+        upstreamProperties.getPool().setMetrics(false);
+        WebClientConfig webClientConfig = new WebClientConfig();
+        connectionProvider = webClientConfig.upstreamConnectionProvider(upstreamProperties);
+
+        CatalogProperties catalogProperties = new CatalogProperties();
+        catalogProperties.getCrawl().setDecodeMode(decodeMode);
+        catalogProperties.getCrawl().setExecution(execution);
+        client = new MovieCatalogClient(webClientConfig.webClient(upstreamProperties, connectionProvider),
+                catalogProperties, upstreamProperties, new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionProvider.dispose();
+        upstream.close();
+    }
+
+    @Benchmark
+    public DirectorIndex crawl() {
+        DirectorCounter counter = new DirectorCounter();
+        client.fetchPages().doOnNext(counter::addPage).blockLast();
+        return counter.toIndex();
+    }
+}
@@ -0,0 +1,120 @@
+package domus.challenge.benchmark;
+
+import domus.challenge.catalog.DirectorAggregator;
+import domus.challenge.catalog.DirectorIndex;
+import domus.challenge.config.CatalogProperties;
+import domus.challenge.model.Movie;
+import domus.challenge.service.DirectorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Counting and threshold filtering over an in-memory catalog
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class DirectorAggregationBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int movies;
+
+    @Param({"100", "10000", "1000000"})
+    private int directors;
+
+    @Param({"3"})
+    private int threshold;
+
+    private List<Movie> catalog;
+    private DirectorIndex index;
+    private DirectorAggregator sequentialAggregator;
+    private DirectorAggregator parallelAggregator;
+    private DirectorService directorService;
+    private DirectorService parallelDirectorService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Director names are shared instances, like an interning decoder would produce
+        String[] names = new String[directors];
+        for (int i = 0; i < directors; i++) {
+            names[i] = "Director " + i;
+        }
+        catalog = new ArrayList<>(movies);
+        for (int i = 0; i < movies; i++) {
+            Movie movie = new Movie();
+            movie.setDirector(names[(int) Math.floorMod(i * 2654435761L, directors)]);
+            catalog.add(movie);
+        }
+        index = DirectorIndex.fromMovies(catalog);
+
+        CatalogProperties sequential = new CatalogProperties();
+        sequential.getAggregation().setParallelThreshold(Integer.MAX_VALUE);
+        sequentialAggregator = new DirectorAggregator(sequential);
+        directorService = new DirectorService(null, sequentialAggregator);
+        CatalogProperties parallel = new CatalogProperties();
+        parallel.getAggregation().setParallelThreshold(0);
+        parallelAggregator = new DirectorAggregator(parallel);
+        parallelDirectorService = new DirectorService(null, parallelAggregator);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sequentialAggregator.stop();
+        parallelAggregator.stop();
+    }
+
+    @Benchmark
+    public List<String> processDirectors() {
+        return directorService.processDirectors(catalog, threshold);
+    }
+
+    @Benchmark
+    public List<String> processDirectorsParallel() {
+        return parallelDirectorService.processDirectors(catalog, threshold);
+    }
+
+    // The original stream pipeline, kept as the baseline for the counting structure
+    @Benchmark
+    public List<String> groupingByBaseline() {
+        return catalog.stream()
+                .map(Movie::getDirector)
+                .filter(director -> director != null && !director.trim().isEmpty())
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+                .entrySet().stream()
+                .filter(entry -> entry.getValue() > threshold)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+    }
+
+    @Benchmark
+    public DirectorIndex buildIndex() {
+        return DirectorIndex.fromMovies(catalog);
+    }
+
+    // Per-request cost once the snapshot index exists
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public List<String> indexLookup() {
+        return index.directorsAbove(threshold);
+    }
+}
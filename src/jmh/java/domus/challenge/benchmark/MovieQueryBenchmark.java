@@ -0,0 +1,98 @@
+package domus.challenge.benchmark;
+
+import domus.challenge.catalog.DirectorNames;
+import domus.challenge.catalog.MovieField;
+import domus.challenge.catalog.MovieQuery;
+import domus.challenge.catalog.MovieTable;
+import domus.challenge.model.GroupCount;
+import domus.challenge.model.Movie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// "Directors with more than 3 dramas after 2000", over the movie table versus the Movie POJOs
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MovieQueryBenchmark {
+
+    private static final String[] GENRES = {"Drama", "Comedy", "Crime", "Romance", "Thriller", "Action", "Horror"};
+
+    @Param({"100000", "1000000"})
+    private int movies;
+
+    private List<Movie> catalog;
+    private MovieTable table;
+    private MovieQuery dramasAfter2000;
+    private MovieQuery actorsByYear;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = new ArrayList<>(movies);
+        MovieTable.Builder builder = new MovieTable.Builder(DirectorNames.DEFAULT);
+        for (int i = 0; i < movies; i++) {
+            Movie movie = new Movie();
+            int hash = (int) Math.floorMod(i * 2654435761L, 1_000_000_007L);
+            movie.setDirector("Director " + hash % 10_000);
+            movie.setGenre(GENRES[hash % GENRES.length] + ", " + GENRES[(hash / 7) % GENRES.length]);
+            movie.setActors("Actor " + hash % 50_000 + ", Actor " + (hash / 3) % 50_000 + ", Actor " + (hash / 11) % 50_000);
+            movie.setYear(1950 + hash % 75);
+            movie.setRuntime(80 + hash % 100 + " min");
+            catalog.add(movie);
+            builder.add(movie);
+        }
+        table = builder.build();
+        dramasAfter2000 = new MovieQuery(MovieField.DIRECTOR)
+                .where(MovieField.GENRE, List.of("Drama"))
+                .between(MovieField.YEAR, 2001, null)
+                .above(3);
+        actorsByYear = new MovieQuery(MovieField.YEAR)
+                .where(MovieField.ACTOR, List.of("Actor 1", "Actor 2", "Actor 3"));
+    }
+
+    @Benchmark
+    public List<GroupCount> tableDirectorsWithDramasAfter2000() {
+        return table.aggregate(dramasAfter2000);
+    }
+
+    @Benchmark
+    public Map<String, Integer> pojoDirectorsWithDramasAfter2000() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Movie movie : catalog) {
+            if (movie.getYear() <= 2000) {
+                continue;
+            }
+            for (String genre : movie.getGenre().split(",")) {
+                if (genre.strip().equalsIgnoreCase("Drama")) {
+                    counts.merge(movie.getDirector().strip(), 1, Integer::sum);
+                    break;
+                }
+            }
+        }
+        counts.values().removeIf(count -> count <= 3);
+        return counts;
+    }
+
+    @Benchmark
+    public List<GroupCount> tableYearsOfActors() {
+        return table.aggregate(actorsByYear);
+    }
+}
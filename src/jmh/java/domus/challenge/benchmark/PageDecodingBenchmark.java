@@ -0,0 +1,65 @@
+package domus.challenge.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import domus.challenge.client.DirectorPage;
+import domus.challenge.client.DirectorProjectionDecoder;
+import domus.challenge.model.MovieApiResponse;
+import domus.challenge.support.StubMovieApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// POJO binding versus projection decoding of one upstream page; compare gc.alloc.rate.norm
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageDecodingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int moviesPerPage;
+
+    private byte[] page;
+    private ObjectMapper objectMapper;
+    private final DirectorProjectionDecoder projectionDecoder = new DirectorProjectionDecoder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        try (StubMovieApi upstream = new StubMovieApi(1, moviesPerPage, 50).start()) {
+            page = WebClient.create(upstream.baseUrl()).get()
+                    .uri("/api/movies/search?page=1")
+                    .retrieve()
+                    .bodyToMono(byte[].class)
+                    .block();
+        }
+        // Same leniency as the Spring Boot ObjectMapper used by WebClient
+        objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    @Benchmark
+    public DirectorPage pojo() throws IOException {
+        return DirectorPage.from(objectMapper.readValue(page, MovieApiResponse.class));
+    }
+
+    @Benchmark
+    public DirectorPage projection() {
+        return projectionDecoder.decode(DefaultDataBufferFactory.sharedInstance.wrap(page));
+    }
+}
@@ -0,0 +1,60 @@
+package domus.challenge.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import domus.challenge.config.ResponseCacheProperties;
+import domus.challenge.controller.DirectorsResponseCache;
+import domus.challenge.model.DirectorsResponse;
+import domus.challenge.service.DirectorsResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Serializing a /directors answer per request versus writing the cached bytes of its threshold
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int directors;
+
+    private ObjectMapper objectMapper;
+    private DirectorsResult result;
+    private DirectorsResponseCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        List<String> names = IntStream.range(0, directors).mapToObj(i -> "Director " + i).sorted().toList();
+        result = new DirectorsResult(names, true, 1, null);
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        cache = new DirectorsResponseCache(objectMapper, properties);
+    }
+
+    @Benchmark
+    public byte[] serializePerRequest() throws IOException {
+        return objectMapper.writeValueAsBytes(new DirectorsResponse(result.getDirectors(), result.isComplete()));
+    }
+
+    @Benchmark
+    public byte[] cachedBytes() {
+        return cache.body(result, 4).getJson();
+    }
+}
@@ -0,0 +1,103 @@
+package domus.challenge.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What one load test run measured. Latencies are recorded in microseconds; in the open model they
+ * count from when the request was due rather than when it was sent, so a stalled service is not
+ * hidden by requests that queued up behind it.
+ */
+public class LoadReport {
+
+    private static final long MAX_LATENCY_MICROS = Duration.ofMinutes(5).toNanos() / 1000;
+    private final Histogram latencies = new Histogram(MAX_LATENCY_MICROS, 3);
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private volatile long peakHeapUsed;
+    private long gcCountAtStart;
+    private long gcMillisAtStart;
+    private Duration elapsed = Duration.ZERO;
+
+    public void start() {
+        gcCountAtStart = gcCount();
+        gcMillisAtStart = gcMillis();
+        sampleHeap();
+    }
+
+    // Called periodically during the run; heap use between samples is not seen
+    public void sampleHeap() {
+        long used = memory.getHeapMemoryUsage().getUsed();
+        if (used > peakHeapUsed) {
+            peakHeapUsed = used;
+        }
+    }
+
+    public void record(int status, long latencyNanos) {
+        synchronized (latencies) {
+            latencies.recordValue(Math.min(latencyNanos / 1000, MAX_LATENCY_MICROS));
+        }
+        if (status == 304) {
+            notModified.incrementAndGet();
+        } else if (status >= 200 && status < 300) {
+            succeeded.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+
+    public void finish(Duration elapsed) {
+        this.elapsed = elapsed;
+        sampleHeap();
+    }
+
+    public long requests() {
+        return succeeded.get() + notModified.get() + failed.get();
+    }
+
+    public long failedRequests() {
+        return failed.get();
+    }
+
+    public void print(PrintStream out, Duration coldStart, long coldStartUpstreamCalls, long upstreamCalls,
+                      long upstreamErrors, long crawls) {
+        long requests = requests();
+        double seconds = elapsed.toNanos() / 1e9;
+        out.printf("Cold start      first answer after %d ms, %d upstream calls%n",
+                coldStart.toMillis(), coldStartUpstreamCalls);
+        out.printf("Requests        %d in %.1fs (%.1f/s): %d ok, %d not modified, %d failed%n",
+                requests, seconds, requests / seconds, succeeded.get(), notModified.get(), failed.get());
+        synchronized (latencies) {
+            out.printf("Latency ms      p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                    percentile(50), percentile(90), percentile(99), percentile(99.9),
+                    latencies.getMaxValue() / 1000.0);
+        }
+        out.printf("Upstream calls  %d during the run, %d failed, %.4f per request, %d crawls%n",
+                upstreamCalls, upstreamErrors, requests == 0 ? 0 : (double) upstreamCalls / requests, crawls);
+        out.printf("Heap            peak %d MB used, %d MB committed; GC %d collections, %d ms%n",
+                peakHeapUsed >> 20, memory.getHeapMemoryUsage().getCommitted() >> 20,
+                gcCount() - gcCountAtStart, gcMillis() - gcMillisAtStart);
+    }
+
+    private double percentile(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+}
@@ -0,0 +1,157 @@
+package domus.challenge.loadtest;
+
+import domus.challenge.ChallengeApplication;
+import domus.challenge.support.StubMovieApi;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the application against a local upstream stub and drives /api/directors traffic at it:
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--model=open --rate=2000 --duration=1m"
+ *
+ * The service, the stub and the load generator share this JVM, so heap and GC figures cover all three;
+ * compare runs against each other rather than reading them as the service's footprint.
+ */
+public class LoadTest {
+
+    // Open model: requests beyond this many in flight wait, and their wait counts as latency
+    private static final int MAX_IN_FLIGHT = 10_000;
+
+    public static void main(String[] args) {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.println("Load test: " + options);
+        int exitCode;
+        try (StubMovieApi upstream = new StubMovieApi(options.getPages(), options.getPerPage(), options.getDirectors())
+                .start()) {
+            upstream.setLatency(options.getLatency());
+            upstream.setLatencyJitter(options.getLatencyJitter());
+            upstream.setErrorRate(options.getErrorRate());
+            try (ConfigurableApplicationContext application = startApplication(upstream, options)) {
+                exitCode = run(application, upstream, options);
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext startApplication(StubMovieApi upstream, LoadTestOptions options) {
+        // Passed as arguments, which take precedence over application.properties
+        return new SpringApplicationBuilder(ChallengeApplication.class)
+                .run("--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        // Per-request INFO lines would measure the console rather than the service
+                        "--logging.level.domus.challenge=WARN",
+                        "--upstream.base-url=" + upstream.baseUrl(),
+                        "--catalog.persistence.enabled=false",
+                        "--catalog.refresh.interval=" + options.getRefreshInterval().toMillis() + "ms",
+                        "--catalog.refresh.stale-after=" + options.getRefreshInterval().toMillis() + "ms");
+    }
+
+    private static int run(ConfigurableApplicationContext application, StubMovieApi upstream, LoadTestOptions options) {
+        int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+        MeterRegistry meterRegistry = application.getBean(MeterRegistry.class);
+        ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(Math.max(options.getUsers(), 512))
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient client = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+        try {
+            // The first answer waits for the initial crawl
+            long coldStartBegin = System.nanoTime();
+            Integer firstStatus = request(client, options).block(Duration.ofMinutes(5));
+            Duration coldStart = Duration.ofNanos(System.nanoTime() - coldStartBegin);
+            if (firstStatus == null || firstStatus != 200) {
+                System.out.println("The service did not answer the first request (status " + firstStatus + ")");
+                return 1;
+            }
+            long upstreamCallsBefore = upstream.requestCount();
+            long upstreamErrorsBefore = upstream.failedRequestCount();
+            long crawlsBefore = crawls(meterRegistry);
+
+            LoadReport report = new LoadReport();
+            Disposable heapSampler = Flux.interval(Duration.ofMillis(100)).subscribe(tick -> report.sampleHeap());
+            report.start();
+            long started = System.nanoTime();
+            long deadline = started + options.getDuration().toNanos();
+            if (options.getModel() == LoadTestOptions.Model.CLOSED) {
+                runClosed(client, options, report, deadline);
+            } else {
+                runOpen(client, options, report, started, deadline);
+            }
+            report.finish(Duration.ofNanos(System.nanoTime() - started));
+            heapSampler.dispose();
+
+            report.print(System.out, coldStart, upstreamCallsBefore,
+                    upstream.requestCount() - upstreamCallsBefore,
+                    upstream.failedRequestCount() - upstreamErrorsBefore,
+                    crawls(meterRegistry) - crawlsBefore);
+            return report.requests() > 0 && report.failedRequests() < report.requests() ? 0 : 1;
+        } finally {
+            connections.disposeLater().block();
+        }
+    }
+
+    private static void runClosed(WebClient client, LoadTestOptions options, LoadReport report, long deadline) {
+        Flux.range(0, options.getUsers())
+                .flatMap(user -> Mono.defer(() -> {
+                    long sent = System.nanoTime();
+                    return request(client, options).doOnNext(status -> report.record(status, System.nanoTime() - sent));
+                }).repeat(() -> System.nanoTime() < deadline), options.getUsers())
+                .blockLast();
+    }
+
+    private static void runOpen(WebClient client, LoadTestOptions options, LoadReport report, long started,
+                                long deadline) {
+        long periodNanos = 1_000_000_000L / options.getRate();
+        AtomicLong issued = new AtomicLong();
+        // Every millisecond, release the requests that have come due since the previous tick
+        Flux.interval(Duration.ofMillis(1))
+                .onBackpressureDrop()
+                .takeWhile(tick -> System.nanoTime() < deadline)
+                .concatMap(tick -> {
+                    long due = (System.nanoTime() - started) / periodNanos + 1;
+                    long from = issued.getAndSet(due);
+                    return Flux.range(0, (int) (due - from)).map(offset -> from + offset);
+                })
+                .flatMap(index -> {
+                    long intended = started + index * periodNanos;
+                    return request(client, options).doOnNext(status -> report.record(status, System.nanoTime() - intended));
+                }, MAX_IN_FLIGHT)
+                .blockLast();
+    }
+
+    private static Mono<Integer> request(WebClient client, LoadTestOptions options) {
+        int threshold = ThreadLocalRandom.current().nextInt(options.getMaxThreshold() + 1);
+        return client.get()
+                .uri("/api/directors?threshold={threshold}", threshold)
+                .headers(headers -> {
+                    if (options.isGzip()) {
+                        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+                    }
+                })
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+                // Connection failures are counted as failed requests
+                .onErrorReturn(-1);
+    }
+
+    private static long crawls(MeterRegistry meterRegistry) {
+        return meterRegistry.find("catalog.crawl").timers().stream().mapToLong(Timer::count).sum();
+    }
+}
@@ -0,0 +1,134 @@
+package domus.challenge.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line of the load test, as --name=value pairs. Durations take the same forms as the
+ * application properties (500ms, 30s, 2m).
+ */
+public class LoadTestOptions {
+
+    public enum Model {
+        // A fixed number of users, each sending its next request as soon as the previous one is answered
+        CLOSED,
+        // Requests arrive at a fixed rate whether or not earlier ones have been answered
+        OPEN
+    }
+
+    private static final Set<String> NAMES = Set.of("model", "users", "rate", "duration", "max-threshold", "gzip",
+            "pages", "per-page", "directors", "latency", "latency-jitter", "error-rate", "refresh-interval");
+
+    private Model model = Model.CLOSED;
+    private int users = 64;
+    private int rate = 500;
+    private Duration duration = Duration.ofSeconds(30);
+    private int maxThreshold = 10;
+    private boolean gzip = false;
+    private int pages = 100;
+    private int perPage = 10;
+    private int directors = 500;
+    private Duration latency = Duration.ofMillis(20);
+    private Duration latencyJitter = Duration.ofMillis(10);
+    private double errorRate = 0.01;
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0 || !NAMES.contains(arg.substring(2, separator))) {
+                throw new IllegalArgumentException("Unknown option '" + arg + "', expected --name=value with name one of "
+                        + NAMES);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions();
+        values.forEach(options::set);
+        return options;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "model" -> model = Model.valueOf(value.toUpperCase());
+            case "users" -> users = Integer.parseInt(value);
+            case "rate" -> rate = Integer.parseInt(value);
+            case "duration" -> duration = DurationStyle.detectAndParse(value);
+            case "max-threshold" -> maxThreshold = Integer.parseInt(value);
+            case "gzip" -> gzip = Boolean.parseBoolean(value);
+            case "pages" -> pages = Integer.parseInt(value);
+            case "per-page" -> perPage = Integer.parseInt(value);
+            case "directors" -> directors = Integer.parseInt(value);
+            case "latency" -> latency = DurationStyle.detectAndParse(value);
+            case "latency-jitter" -> latencyJitter = DurationStyle.detectAndParse(value);
+            case "error-rate" -> errorRate = Double.parseDouble(value);
+            case "refresh-interval" -> refreshInterval = DurationStyle.detectAndParse(value);
+            default -> throw new IllegalArgumentException("Unknown option " + name);
+        }
+    }
+
+    public Model getModel() {
+        return model;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public int getMaxThreshold() {
+        return maxThreshold;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    public int getPerPage() {
+        return perPage;
+    }
+
+    public int getDirectors() {
+        return directors;
+    }
+
+    public Duration getLatency() {
+        return latency;
+    }
+
+    public Duration getLatencyJitter() {
+        return latencyJitter;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    @Override
+    public String toString() {
+        String load = model == Model.CLOSED ? users + " users" : rate + " requests/s";
+        return model.name().toLowerCase() + " model, " + load + ", " + duration.toSeconds() + "s, thresholds 0.."
+                + maxThreshold + (gzip ? ", gzip" : "") + "; upstream " + pages + " pages x " + perPage + " movies, "
+                + directors + " directors, latency " + latency.toMillis() + "ms + exp(" + latencyJitter.toMillis()
+                + "ms), " + (errorRate * 100) + "% errors, refresh every " + refreshInterval.toSeconds() + "s";
+    }
+}
@@ -0,0 +1,171 @@
+package domus.challenge.loadtest;
+
+import domus.challenge.support.StubMovieApi;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from process start to the first successful /api/directors answer, for each build of the application:
+ * mvn -Pcds -DskipTests package && mvn -Pstartup test-compile exec:exec -Dstartup.args="--builds=jvm,cds"
+ *
+ * Every run is a new process against a local upstream stub, so the time covers JVM or native startup, the
+ * Spring context and the first crawl. The default stub catalog is small, to keep the crawl out of the way.
+ */
+public class StartupBenchmark {
+
+    enum Build {
+        // The executable jar as built
+        JVM,
+        // The jar extracted by the cds profile, with its AOT initializers and class data sharing archive
+        CDS,
+        // The executable built by the native profile
+        NATIVE
+    }
+
+    private static final Set<String> NAMES = Set.of("target", "jar", "native", "builds", "runs", "timeout",
+            "pages", "per-page", "directors", "latency");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        Path target = Path.of(options.getOrDefault("target", "target"));
+        String jar = options.getOrDefault("jar", "challenge-0.0.1-SNAPSHOT.jar");
+        String nativeName = options.getOrDefault("native", "challenge");
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Duration timeout = DurationStyle.detectAndParse(options.getOrDefault("timeout", "2m"));
+        int pages = Integer.parseInt(options.getOrDefault("pages", "10"));
+        int perPage = Integer.parseInt(options.getOrDefault("per-page", "10"));
+        int directors = Integer.parseInt(options.getOrDefault("directors", "50"));
+        Duration latency = DurationStyle.detectAndParse(options.getOrDefault("latency", "0ms"));
+        List<Build> builds = Arrays.stream(options.getOrDefault("builds", "jvm,cds,native").split(","))
+                .map(name -> Build.valueOf(name.strip().toUpperCase()))
+                .toList();
+
+        System.out.println("Startup benchmark: " + runs + " runs per build, upstream " + pages + " pages x " + perPage
+                + " movies, latency " + latency.toMillis() + "ms");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        try (StubMovieApi upstream = new StubMovieApi(pages, perPage, directors).start()) {
+            upstream.setLatency(latency);
+            for (Build build : builds) {
+                List<String> command = command(build, target, jar, nativeName);
+                if (command == null) {
+                    continue;
+                }
+                long[] millis = new long[runs];
+                for (int run = 0; run < runs; run++) {
+                    Path log = target.resolve("startup").resolve(build.name().toLowerCase() + "-" + run + ".log");
+                    millis[run] = timeToFirstAnswer(command, upstream, client, log, timeout).toMillis();
+                }
+                Arrays.sort(millis);
+                System.out.printf("%-7s first answer after  min %6d ms  median %6d ms  max %6d ms%n",
+                        build.name().toLowerCase(), millis[0], millis[runs / 2], millis[runs - 1]);
+            }
+        }
+    }
+
+    // Null, with a note, when the build has not been made
+    private static List<String> command(Build build, Path target, String jar, String nativeName) {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Path executable = switch (build) {
+            case JVM -> target.resolve(jar);
+            case CDS -> target.resolve("cds").resolve("application.jsa");
+            case NATIVE -> target.resolve(nativeName);
+        };
+        if (!Files.exists(executable)) {
+            String profile = build == Build.JVM ? "" : " -P" + build.name().toLowerCase();
+            System.out.println("Skipping " + build.name().toLowerCase() + ": " + executable + " not found, build it with mvn"
+                    + profile + " -DskipTests package");
+            return null;
+        }
+        return switch (build) {
+            case JVM -> List.of(java, "-jar", executable.toString());
+            case CDS -> List.of(java, "-XX:SharedArchiveFile=" + executable, "-Dspring.aot.enabled=true",
+                    "-jar", target.resolve("cds").resolve(jar).toString());
+            case NATIVE -> List.of(executable.toString());
+        };
+    }
+
+    private static Duration timeToFirstAnswer(List<String> command, StubMovieApi upstream, HttpClient client,
+                                              Path log, Duration timeout) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(command);
+        // Passed as arguments, which take precedence over application.properties
+        arguments.addAll(List.of("--server.port=" + port,
+                "--spring.main.banner-mode=off",
+                "--logging.level.domus.challenge=WARN",
+                "--upstream.base-url=" + upstream.baseUrl(),
+                // A persisted snapshot would answer before the first crawl
+                "--catalog.persistence.enabled=false",
+                "--catalog.cluster.enabled=false"));
+        Files.createDirectories(log.getParent());
+        URI uri = URI.create("http://127.0.0.1:" + port + "/api/directors?threshold=0");
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(arguments)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = started + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(command.get(0) + " exited with " + process.exitValue() + ", see " + log);
+                }
+                if (answers(client, uri, Duration.ofNanos(deadline - System.nanoTime()))) {
+                    return Duration.ofNanos(System.nanoTime() - started);
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("No answer within " + timeout + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // Refused connections mean the server is not listening yet
+    private static boolean answers(HttpClient client, URI uri, Duration timeout) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0 || !NAMES.contains(arg.substring(2, separator))) {
+                throw new IllegalArgumentException("Unknown option '" + arg + "', expected --name=value with name one of "
+                        + NAMES);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return values;
+    }
+}
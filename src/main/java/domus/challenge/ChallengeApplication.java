@@ -1,13 +1,16 @@
 package domus.challenge;
 
+import domus.challenge.config.ApplicationRuntimeHints;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Contact;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.info.License;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(ApplicationRuntimeHints.class)
 @OpenAPIDefinition(
 	info = @Info(
 		title = "Domus Challenge API",
@@ -0,0 +1,333 @@
+package domus.challenge.catalog;
+
+import domus.challenge.client.DirectorPage;
+import domus.challenge.client.MovieCatalogClient;
+import domus.challenge.client.PageValidators;
+import domus.challenge.config.CatalogProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToDoubleFunction;
+
+@Component
+public class CatalogCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogCache.class);
+    private final MovieCatalogClient catalogClient;
+    private final CatalogStore store;
+    private final CatalogProperties.Refresh refreshProperties;
+    private final DirectorNames directorNames;
+    private final boolean movieTable;
+    // Null unless several nodes share the store; only the leader crawls
+    private final RefreshLeadership leadership;
+    private final CatalogProperties.Cluster cluster;
+    // Null when every refresh recounts the whole catalog
+    private final IncrementalCatalog incremental;
+    private final Clock clock;
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private final AtomicReference<CatalogCrawl> inFlight = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    // The newest version read from or written to the store; a follower's own crawls do not count
+    private final AtomicLong storeVersion = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+    private final Counter moviesProcessed;
+    private Disposable scheduledRefresh;
+
+    @Autowired
+    public CatalogCache(MovieCatalogClient catalogClient, CatalogProperties properties,
+                        CatalogStore store, MeterRegistry meterRegistry) {
+        this(catalogClient, properties, store, meterRegistry, Clock.systemUTC());
+    }
+
+    CatalogCache(MovieCatalogClient catalogClient, CatalogProperties properties,
+                 CatalogStore store, Clock clock) {
+        this(catalogClient, properties, store, new SimpleMeterRegistry(), clock);
+    }
+
+    CatalogCache(MovieCatalogClient catalogClient, CatalogProperties properties,
+                 CatalogStore store, MeterRegistry meterRegistry, Clock clock) {
+        this.catalogClient = catalogClient;
+        this.store = store;
+        this.refreshProperties = properties.getRefresh();
+        this.directorNames = new DirectorNames(properties.getAggregation().isFoldCase());
+        this.movieTable = properties.getMovieTable().isEnabled();
+        this.incremental = refreshProperties.isIncremental() ? new IncrementalCatalog(directorNames) : null;
+        if (movieTable && incremental != null) {
+            log.warn("catalog.movie-table.enabled: incremental refreshes fetch every page unconditionally");
+        }
+        this.cluster = properties.getCluster();
+        this.leadership = cluster.isEnabled() ? new LockFileLeadership(cluster.getLockPath()) : null;
+        if (cluster.isEnabled() && !properties.getPersistence().isEnabled()) {
+            log.warn("Catalog clustering needs catalog.persistence.enabled to share snapshots between nodes");
+        }
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.moviesProcessed = Counter.builder("catalog.movies.processed")
+                .description("Movies folded into the director counts, over all crawls")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.movies", current, ref -> snapshotValue(ref, CatalogSnapshot::getMovieCount))
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.directors", current,
+                        ref -> snapshotValue(ref, snapshot -> snapshot.getDirectorIndex().size()))
+                .description("Distinct directors in the current snapshot")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.age", current, ref -> snapshotValue(ref,
+                        snapshot -> Duration.between(snapshot.getFetchedAt(), clock.instant()).toMillis() / 1000.0))
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        if (leadership != null) {
+            Gauge.builder("catalog.cluster.leader", leadership, lock -> lock.isLeader() ? 1 : 0)
+                    .description("1 on the node that crawls for the cluster")
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        // Serve the persisted snapshot right away; the first scheduled refresh replaces it
+        store.load().ifPresent(snapshot -> {
+            versions.set(snapshot.getVersion());
+            storeVersion.set(snapshot.getVersion());
+            current.set(snapshot);
+        });
+        if (!refreshProperties.isEnabled()) {
+            return;
+        }
+        if (leadership != null) {
+            log.info("Clustered catalog: contending for {} every {}", cluster.getLockPath(), cluster.getPollInterval());
+            scheduledRefresh = Flux.interval(Duration.ZERO, cluster.getPollInterval())
+                    .onBackpressureDrop()
+                    .concatMap(tick -> clusterTick()
+                            .onErrorResume(error -> {
+                                log.warn("Clustered catalog refresh failed: {}", error.getMessage());
+                                return Mono.empty();
+                            }))
+                    .subscribe();
+            return;
+        }
+        Duration interval = refreshProperties.getInterval();
+        log.info("Scheduling catalog refresh every {}", interval);
+        scheduledRefresh = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh()
+                        .onErrorResume(error -> {
+                            log.warn("Scheduled catalog refresh failed: {}", error.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.dispose();
+        }
+        if (leadership != null) {
+            leadership.release();
+        }
+    }
+
+    public Mono<CatalogSnapshot> snapshot() {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            countLookup("miss");
+            return isRefreshLeader() ? refresh() : awaitLeader();
+        }
+        if (snapshot.isStale(refreshProperties.getStaleAfter(), clock.instant())) {
+            countLookup("stale");
+            // Stale-while-revalidate: answer from the old snapshot, refresh in the background
+            log.debug("Catalog snapshot {} is stale, revalidating", snapshot.getVersion());
+            (isRefreshLeader() ? refresh() : syncFromStore()).subscribe(
+                    refreshed -> { },
+                    error -> log.warn("Background catalog refresh failed: {}", error.getMessage()));
+        } else {
+            countLookup("hit");
+        }
+        return Mono.just(snapshot);
+    }
+
+    public Mono<CatalogSnapshot> refresh() {
+        return crawl().result();
+    }
+
+    // The running crawl, or a new one that starts once its result is subscribed to
+    public CatalogCrawl crawl() {
+        // Single-flight: concurrent callers share the crawl that is already running
+        while (true) {
+            CatalogCrawl running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            CatalogCrawl crawl;
+            MovieTable.Builder table = movieTable ? new MovieTable.Builder(directorNames) : null;
+            if (incremental != null) {
+                crawl = new CatalogCrawl(incremental.counter(), incremental::apply, table, this::crawlIncrementally);
+            } else {
+                DirectorCounter counter = new DirectorCounter(directorNames);
+                crawl = new CatalogCrawl(counter, counter::addPage, table, this::crawlFully);
+            }
+            if (inFlight.compareAndSet(null, crawl)) {
+                return crawl;
+            }
+        }
+    }
+
+    // The leader crawls whenever its snapshot is older than the refresh interval; the others follow the store
+    private Mono<CatalogSnapshot> clusterTick() {
+        if (!leadership.tryAcquire()) {
+            return syncFromStore();
+        }
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot != null && snapshot.getFetchedAt().plus(refreshProperties.getInterval()).isAfter(clock.instant())) {
+            return Mono.empty();
+        }
+        // Continue the numbering of whoever published last, so versions keep increasing across leaders
+        versions.accumulateAndGet(store.storedVersion(), Math::max);
+        return refresh();
+    }
+
+    /**
+     * False on a node that follows the snapshots another node publishes, true on the refresh leader and
+     * without clustering. Only the leader writes to the store.
+     */
+    public boolean isRefreshLeader() {
+        return leadership == null || leadership.isLeader();
+    }
+
+    // Empty unless the store holds a newer snapshot than the last one read from it
+    private Mono<CatalogSnapshot> syncFromStore() {
+        return Mono.fromCallable(() -> {
+                    long known = storeVersion.get();
+                    if (store.storedVersion() <= known) {
+                        return null;
+                    }
+                    CatalogSnapshot loaded = store.load().filter(stored -> stored.getVersion() > known).orElse(null);
+                    if (loaded != null) {
+                        storeVersion.accumulateAndGet(loaded.getVersion(), Math::max);
+                        versions.accumulateAndGet(loaded.getVersion(), Math::max);
+                        current.set(loaded);
+                        log.info("Catalog snapshot {} loaded from the shared store", loaded.getVersion());
+                    }
+                    return loaded;
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // A follower with nothing to serve waits for the leader's snapshot rather than adding a crawl of its own
+    private Mono<CatalogSnapshot> awaitLeader() {
+        return Flux.interval(Duration.ZERO, cluster.getPollInterval())
+                .concatMap(tick -> current.get() != null ? Mono.just(current.get()) : syncFromStore())
+                .next()
+                .timeout(cluster.getFollowerWait(), Mono.defer(() -> {
+                    log.warn("No catalog snapshot from the refresh leader after {}, crawling locally",
+                            cluster.getFollowerWait());
+                    return refresh();
+                }));
+    }
+
+    private Mono<CatalogSnapshot> crawlFully(CatalogCrawl crawl) {
+        return install(crawl, catalogClient.fetchPages()
+                // Fold each page into the counter as it arrives; the movies are dropped right away
+                .doOnNext(page -> fold(crawl, page))
+                .then());
+    }
+
+    // Only pages that changed since the previous crawl touch the counts. The movie table is rebuilt
+    // from every page, so with it the pages are fetched unconditionally
+    private Mono<CatalogSnapshot> crawlIncrementally(CatalogCrawl crawl) {
+        return install(crawl, catalogClient.fetchPages(movieTable ? PageValidators.NONE : incremental)
+                .doOnNext(page -> fold(crawl, page))
+                .then(Mono.fromRunnable(incremental::finishCrawl)));
+    }
+
+    private void fold(CatalogCrawl crawl, DirectorPage page) {
+        crawl.fold(page);
+        moviesProcessed.increment(page.getDirectors().size());
+    }
+
+    private Mono<CatalogSnapshot> install(CatalogCrawl crawl, Mono<Void> pages) {
+        return timed(pages.then(Mono.fromSupplier(() -> crawl.toSnapshot(versions.incrementAndGet(), clock.instant()))))
+                .doOnNext(snapshot -> {
+                    // A partial snapshot still replaces the previous one; responses report it as incomplete
+                    current.set(snapshot);
+                    if (snapshot.isComplete()) {
+                        log.info("Catalog snapshot {} loaded with {} movies and {} directors",
+                                snapshot.getVersion(), snapshot.getMovieCount(), snapshot.getDirectorIndex().size());
+                        if (isRefreshLeader()) {
+                            persist(snapshot);
+                        } else {
+                            // Publishing would race the leader's snapshots
+                            log.info("Catalog snapshot {} crawled by a follower, kept out of the shared store",
+                                    snapshot.getVersion());
+                        }
+                    } else {
+                        log.warn("Catalog snapshot {} is partial: {} pages failed",
+                                snapshot.getVersion(), snapshot.getFailedPages());
+                    }
+                })
+                .doFinally(signal -> inFlight.compareAndSet(crawl, null));
+    }
+
+    private Mono<CatalogSnapshot> timed(Mono<CatalogSnapshot> crawl) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return crawl
+                    .doOnNext(snapshot -> sample.stop(crawlTimer(snapshot.isComplete() ? "complete" : "partial")))
+                    .doOnError(error -> sample.stop(crawlTimer("error")));
+        });
+    }
+
+    private Timer crawlTimer(String outcome) {
+        return Timer.builder("catalog.crawl")
+                .description("Duration of a full crawl of the upstream catalog")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void countLookup(String result) {
+        meterRegistry.counter("catalog.cache.lookups", "result", result).increment();
+    }
+
+    private static double snapshotValue(AtomicReference<CatalogSnapshot> ref, ToDoubleFunction<CatalogSnapshot> value) {
+        CatalogSnapshot snapshot = ref.get();
+        return snapshot == null ? Double.NaN : value.applyAsDouble(snapshot);
+    }
+
+    private void persist(CatalogSnapshot snapshot) {
+        storeVersion.accumulateAndGet(snapshot.getVersion(), Math::max);
+        Mono.fromRunnable(() -> store.save(snapshot))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe();
+    }
+
+    // When the snapshot is due to be replaced, by the scheduled refresh or by a stale revalidation
+    public Instant freshUntil(CatalogSnapshot snapshot) {
+        Duration staleAfter = refreshProperties.getStaleAfter();
+        Duration lifetime = refreshProperties.isEnabled() && refreshProperties.getInterval().compareTo(staleAfter) < 0
+                ? refreshProperties.getInterval()
+                : staleAfter;
+        return snapshot.getFetchedAt().plus(lifetime);
+    }
+
+    public CatalogSnapshot current() {
+        return current.get();
+    }
+}
@@ -0,0 +1,92 @@
+package domus.challenge.catalog;
+
+import domus.challenge.client.DirectorPage;
+import domus.challenge.model.Movie;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * One crawl of the upstream catalog. Watchers are handed each page after it has been folded into the
+ * counter, so the counts they read already include it. Nothing is buffered for a crawl nobody watches.
+ */
+public class CatalogCrawl {
+
+    private final DirectorCounter counter;
+    private final Consumer<DirectorPage> folder;
+    // Null unless whole movies are kept for the movie table
+    private final MovieTable.Builder table;
+    private final Sinks.Many<DirectorPage> foldedPages = Sinks.many().multicast().directBestEffort();
+    private final AtomicInteger totalPages = new AtomicInteger();
+    private final AtomicInteger pagesFetched = new AtomicInteger();
+    private final AtomicInteger failedPages = new AtomicInteger();
+    private final Mono<CatalogSnapshot> result;
+
+    CatalogCrawl(DirectorCounter counter, Consumer<DirectorPage> folder,
+                 Function<CatalogCrawl, Mono<CatalogSnapshot>> run) {
+        this(counter, folder, null, run);
+    }
+
+    // The folder applies each page to the counter
+    CatalogCrawl(DirectorCounter counter, Consumer<DirectorPage> folder, MovieTable.Builder table,
+                 Function<CatalogCrawl, Mono<CatalogSnapshot>> run) {
+        this.counter = counter;
+        this.folder = folder;
+        this.table = table;
+        // Pages always complete rather than error; a failed crawl is reported through the result
+        this.result = run.apply(this)
+                .doFinally(signal -> foldedPages.tryEmitComplete())
+                .cache();
+    }
+
+    // Subscribing does not start the crawl, the result does
+    public Flux<DirectorPage> pages() {
+        return foldedPages.asFlux().onBackpressureBuffer();
+    }
+
+    public Mono<CatalogSnapshot> result() {
+        return result;
+    }
+
+    public long count(String director) {
+        return counter.count(director);
+    }
+
+    public String canonicalName(String director) {
+        return counter.canonicalName(director);
+    }
+
+    public int pagesFetched() {
+        return pagesFetched.get();
+    }
+
+    // 0 until the first page has arrived
+    public int totalPages() {
+        return totalPages.get();
+    }
+
+    void fold(DirectorPage page) {
+        folder.accept(page);
+        if (table != null && page.getMovies() != null) {
+            for (Movie movie : page.getMovies()) {
+                table.add(movie);
+            }
+        }
+        pagesFetched.incrementAndGet();
+        if (page.isFailed()) {
+            failedPages.incrementAndGet();
+        }
+        totalPages.accumulateAndGet(page.getTotalPages(), Math::max);
+        foldedPages.tryEmitNext(page);
+    }
+
+    CatalogSnapshot toSnapshot(long version, Instant fetchedAt) {
+        return new CatalogSnapshot(version, fetchedAt, counter.toIndex(), counter.movieCount(), failedPages.get(),
+                table == null ? null : table.build());
+    }
+}
@@ -0,0 +1,66 @@
+package domus.challenge.catalog;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public class CatalogSnapshot {
+    private final long version;
+    private final Instant fetchedAt;
+    private final DirectorIndex directorIndex;
+    private final long movieCount;
+    private final int failedPages;
+    // Null when the movie table is disabled, or for a snapshot restored from disk
+    private final MovieTable movieTable;
+
+    public CatalogSnapshot(long version, Instant fetchedAt, DirectorIndex directorIndex, long movieCount) {
+        this(version, fetchedAt, directorIndex, movieCount, 0);
+    }
+
+    public CatalogSnapshot(long version, Instant fetchedAt, DirectorIndex directorIndex, long movieCount,
+                           int failedPages) {
+        this(version, fetchedAt, directorIndex, movieCount, failedPages, null);
+    }
+
+    public CatalogSnapshot(long version, Instant fetchedAt, DirectorIndex directorIndex, long movieCount,
+                           int failedPages, MovieTable movieTable) {
+        this.version = version;
+        this.fetchedAt = fetchedAt;
+        this.directorIndex = directorIndex;
+        this.movieCount = movieCount;
+        this.failedPages = failedPages;
+        this.movieTable = movieTable;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public DirectorIndex getDirectorIndex() {
+        return directorIndex;
+    }
+
+    public long getMovieCount() {
+        return movieCount;
+    }
+
+    public int getFailedPages() {
+        return failedPages;
+    }
+
+    public MovieTable getMovieTable() {
+        return movieTable;
+    }
+
+    // False when some upstream pages could not be fetched and their directors are missing
+    public boolean isComplete() {
+        return failedPages == 0;
+    }
+
+    public boolean isStale(Duration staleAfter, Instant now) {
+        return fetchedAt.plus(staleAfter).isBefore(now);
+    }
+}
@@ -0,0 +1,172 @@
+package domus.challenge.catalog;
+
+import domus.challenge.config.CatalogProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary copy of a snapshot's director counts so a fresh instance can answer before its first crawl.
+ * Layout: magic, format version, snapshot version, fetchedAt millis, movie count, director count,
+ * then (UTF-8 length, UTF-8 name, count) per director, and a CRC32 of everything before it.
+ */
+@Component
+public class CatalogSnapshotFile implements CatalogStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotFile.class);
+    private static final int MAGIC = 0x444D4353; // "DMCS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int CHECKSUM_BYTES = Long.BYTES;
+    // Magic, format version, snapshot version and fetchedAt
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + 2 * Long.BYTES;
+    private final CatalogProperties.Persistence properties;
+    private final Clock clock;
+
+    @Autowired
+    public CatalogSnapshotFile(CatalogProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    CatalogSnapshotFile(CatalogProperties properties, Clock clock) {
+        this.properties = properties.getPersistence();
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<CatalogSnapshot> load() {
+        Path path = properties.getPath();
+        if (!properties.isEnabled() || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Optional.ofNullable(read(buffer, path));
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            log.warn("Ignoring unreadable catalog snapshot {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void save(CatalogSnapshot snapshot) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path path = properties.getPath().toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try {
+                write(snapshot, temp);
+                // Readers never see a half-written file
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            log.info("Catalog snapshot {} written to {}", snapshot.getVersion(), path);
+        } catch (IOException e) {
+            log.warn("Could not write catalog snapshot to {}: {}", path, e.getMessage());
+        }
+    }
+
+    // Reads the header only; the checksum is verified when the snapshot is loaded
+    @Override
+    public long storedVersion() {
+        Path path = properties.getPath();
+        if (!properties.isEnabled() || !Files.isRegularFile(path)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                return 0;
+            }
+            long version = header.getLong();
+            Instant fetchedAt = Instant.ofEpochMilli(header.getLong());
+            return fetchedAt.plus(properties.getMaxAge()).isBefore(clock.instant()) ? 0 : version;
+        } catch (IOException e) {
+            log.debug("Could not read the catalog snapshot header of {}: {}", path, e.getMessage());
+            return 0;
+        }
+    }
+
+    private void write(CatalogSnapshot snapshot, Path target) throws IOException {
+        CRC32 checksum = new CRC32();
+        DirectorIndex index = snapshot.getDirectorIndex();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+            DataOutputStream body = new DataOutputStream(new CheckedOutputStream(out, checksum));
+            body.writeInt(MAGIC);
+            body.writeInt(FORMAT_VERSION);
+            body.writeLong(snapshot.getVersion());
+            body.writeLong(snapshot.getFetchedAt().toEpochMilli());
+            body.writeLong(snapshot.getMovieCount());
+            body.writeInt(index.size());
+            for (int i = 0; i < index.size(); i++) {
+                byte[] name = index.directorAt(i).getBytes(StandardCharsets.UTF_8);
+                body.writeInt(name.length);
+                body.write(name);
+                body.writeInt(index.countAt(i));
+            }
+            body.flush();
+            out.writeLong(checksum.getValue());
+        }
+    }
+
+    private CatalogSnapshot read(MappedByteBuffer buffer, Path path) {
+        int bodyLength = buffer.limit() - CHECKSUM_BYTES;
+        if (bodyLength < 0) {
+            log.warn("Ignoring truncated catalog snapshot {}", path);
+            return null;
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.slice(0, bodyLength));
+        if (checksum.getValue() != buffer.getLong(bodyLength)) {
+            log.warn("Ignoring corrupt catalog snapshot {}: checksum mismatch", path);
+            return null;
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            log.warn("Ignoring catalog snapshot {}: unknown format", path);
+            return null;
+        }
+        long version = buffer.getLong();
+        Instant fetchedAt = Instant.ofEpochMilli(buffer.getLong());
+        if (fetchedAt.plus(properties.getMaxAge()).isBefore(clock.instant())) {
+            log.info("Ignoring catalog snapshot {} fetched at {}: older than {}", path, fetchedAt, properties.getMaxAge());
+            return null;
+        }
+        long movieCount = buffer.getLong();
+        int directors = buffer.getInt();
+        // Directors are written in index order, so they come back already sorted
+        String[] names = new String[directors];
+        int[] counts = new int[directors];
+        for (int i = 0; i < directors; i++) {
+            byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+            counts[i] = buffer.getInt();
+        }
+        log.info("Loaded catalog snapshot {} ({} directors) fetched at {} from {}", version, directors, fetchedAt, path);
+        return new CatalogSnapshot(version, fetchedAt, DirectorIndex.ofSorted(names, counts), movieCount);
+    }
+}
@@ -0,0 +1,17 @@
+package domus.challenge.catalog;
+
+import java.util.Optional;
+
+/**
+ * Where complete catalog snapshots are kept between crawls. With clustering the store is shared:
+ * the node holding the refresh leadership saves every snapshot it crawls, and the other nodes load it.
+ */
+public interface CatalogStore {
+
+    Optional<CatalogSnapshot> load();
+
+    void save(CatalogSnapshot snapshot);
+
+    // Version of the stored snapshot without reading all of it; 0 when nothing usable is stored
+    long storedVersion();
+}
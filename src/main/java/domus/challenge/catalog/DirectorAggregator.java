@@ -0,0 +1,104 @@
+package domus.challenge.catalog;
+
+import domus.challenge.config.CatalogProperties;
+import domus.challenge.model.Movie;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Counts directors of an in-memory movie list. Large lists are split into one partition per
+ * aggregation thread, counted into partition-local counters and merged; small lists are counted
+ * sequentially on the calling thread, where the hand-off would cost more than it saves.
+ */
+@Component
+public class DirectorAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectorAggregator.class);
+    private final DirectorNames names;
+    private final int parallelThreshold;
+    private final int parallelism;
+    // Dedicated threads, so counting never runs on, or competes with, the Netty event loop
+    private final Scheduler scheduler;
+    private final Timer sequentialTime;
+    private final Timer parallelTime;
+
+    public DirectorAggregator(CatalogProperties properties) {
+        this(properties, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public DirectorAggregator(CatalogProperties properties, MeterRegistry meterRegistry) {
+        CatalogProperties.Aggregation aggregation = properties.getAggregation();
+        this.names = new DirectorNames(aggregation.isFoldCase());
+        this.parallelThreshold = aggregation.getParallelThreshold();
+        this.parallelism = aggregation.getParallelism() > 0
+                ? aggregation.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.scheduler = Schedulers.newParallel("director-aggregation", parallelism, true);
+        this.sequentialTime = aggregationTimer(meterRegistry, "sequential");
+        this.parallelTime = aggregationTimer(meterRegistry, "parallel");
+        log.info("Aggregating movie lists of {}+ movies on {} threads", parallelThreshold, parallelism);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.dispose();
+    }
+
+    public Mono<DirectorIndex> aggregate(List<Movie> movies) {
+        if (movies.size() < parallelThreshold || parallelism == 1) {
+            return Mono.fromSupplier(() -> sequentialTime.record(() -> countSequentially(movies)));
+        }
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return countInParallel(movies).doOnSuccess(index -> sample.stop(parallelTime));
+        });
+    }
+
+    // For callers that must not block, such as the event loop, whatever the list size
+    public DirectorIndex aggregateOnCallingThread(List<Movie> movies) {
+        return sequentialTime.record(() -> countSequentially(movies));
+    }
+
+    private Mono<DirectorIndex> countInParallel(List<Movie> movies) {
+        int partitionSize = (movies.size() + parallelism - 1) / parallelism;
+        return Flux.range(0, parallelism)
+                .flatMap(partition -> Mono.fromSupplier(() -> {
+                    int from = Math.min(partition * partitionSize, movies.size());
+                    DirectorCounter counter = new DirectorCounter(names);
+                    counter.addMovies(movies.subList(from, Math.min(from + partitionSize, movies.size())));
+                    return counter;
+                }).subscribeOn(scheduler), parallelism)
+                .reduce((merged, partial) -> {
+                    merged.merge(partial);
+                    return merged;
+                })
+                .map(DirectorCounter::toIndex)
+                .defaultIfEmpty(DirectorIndex.empty());
+    }
+
+    private static Timer aggregationTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("director.aggregation")
+                .description("Time to count the directors of an in-memory movie list")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    private DirectorIndex countSequentially(List<Movie> movies) {
+        DirectorCounter counter = new DirectorCounter(names);
+        counter.addMovies(movies);
+        return counter.toIndex();
+    }
+}
@@ -0,0 +1,153 @@
+package domus.challenge.catalog;
+
+/**
+ * Open-addressing String to int counter with linear probing. Counting an existing key touches three
+ * arrays and allocates nothing; there are no boxed counts or entry objects.
+ */
+class DirectorCountMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private String[] keys;
+    // Reported name of each key; the same instance as the key unless names are case-folded
+    private String[] names;
+    private int[] hashes;
+    private int[] counts;
+    private int size;
+    private int mask;
+    private int shift;
+    private int resizeAt;
+
+    DirectorCountMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    // Returns the name stored for the key, the first one it was counted under
+    String increment(String key, String name) {
+        return add(key, name, 1);
+    }
+
+    void addAll(DirectorCountMap other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.keys[slot] != null) {
+                add(other.keys[slot], other.names[slot], other.counts[slot]);
+            }
+        }
+    }
+
+    // A negative count takes movies away; a key that drops to 0 stays in the table but is not reported
+    String add(String key, String name, int count) {
+        int hash = key.hashCode();
+        int slot = slotOf(hash);
+        while (true) {
+            String existing = keys[slot];
+            if (existing == null) {
+                keys[slot] = key;
+                names[slot] = name;
+                hashes[slot] = hash;
+                counts[slot] = count;
+                if (++size > resizeAt) {
+                    resize();
+                }
+                return name;
+            }
+            if (hashes[slot] == hash && (existing == key || existing.equals(key))) {
+                counts[slot] += count;
+                return names[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Null, without inserting, when the key is not counted yet
+    String incrementExisting(String key) {
+        int hash = key.hashCode();
+        int slot = slotOf(hash);
+        while (true) {
+            String existing = keys[slot];
+            if (existing == null) {
+                return null;
+            }
+            if (hashes[slot] == hash && (existing == key || existing.equals(key))) {
+                counts[slot]++;
+                return names[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int get(String key) {
+        int hash = key.hashCode();
+        int slot = slotOf(hash);
+        while (true) {
+            String existing = keys[slot];
+            if (existing == null) {
+                return 0;
+            }
+            if (hashes[slot] == hash && (existing == key || existing.equals(key))) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Names with a positive count
+    String[] names() {
+        int counted = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null && counts[slot] > 0) {
+                counted++;
+            }
+        }
+        String[] result = new String[counted];
+        int next = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null && counts[slot] > 0) {
+                result[next++] = names[slot];
+            }
+        }
+        return result;
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        String[] oldNames = names;
+        int[] oldHashes = hashes;
+        int[] oldCounts = counts;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slotOf(oldHashes[i]);
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                names[slot] = oldNames[i];
+                hashes[slot] = oldHashes[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        names = new String[capacity];
+        hashes = new int[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        // Load factor 0.5 keeps probe sequences short
+        resizeAt = capacity >>> 1;
+    }
+
+    // Fibonacci hashing: names like "Director 1".."Director 9" have nearly consecutive hash codes,
+    // which would otherwise pile up into long probe runs
+    private int slotOf(int hash) {
+        return (hash * 0x9E3779B9) >>> shift;
+    }
+}
@@ -0,0 +1,150 @@
+package domus.challenge.catalog;
+
+import domus.challenge.client.DirectorPage;
+import domus.challenge.model.Movie;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Pages are folded one at a time, but streaming watchers read counts from other threads
+public class DirectorCounter {
+
+    private final DirectorNames names;
+    private final DirectorCountMap counts = new DirectorCountMap(1024);
+    private long movies;
+    private int pages;
+    private int failedPages;
+
+    public DirectorCounter() {
+        this(DirectorNames.DEFAULT);
+    }
+
+    public DirectorCounter(DirectorNames names) {
+        this.names = names;
+    }
+
+    public synchronized void addPage(DirectorPage page) {
+        pages++;
+        if (page.isFailed()) {
+            failedPages++;
+            return;
+        }
+        for (String director : page.getDirectors()) {
+            tally(director);
+        }
+    }
+
+    // One lock per batch rather than per movie
+    public synchronized void addMovies(List<Movie> batch) {
+        for (Movie movie : batch) {
+            tally(movie.getDirector());
+        }
+    }
+
+    public synchronized void add(String director) {
+        tally(director);
+    }
+
+    // Swaps the movies of an earlier version of a page for its current ones. Returns the stored names
+    // of the new movies, which is what has to be passed back in when the page changes again
+    public synchronized String[] replace(String[] previous, List<String> directors) {
+        remove(previous);
+        String[] counted = new String[directors.size()];
+        for (int i = 0; i < counted.length; i++) {
+            counted[i] = tally(directors.get(i));
+        }
+        return counted;
+    }
+
+    // True when the directors of a page count exactly as the names previously returned for it
+    public boolean countsAsBefore(String[] previous, List<String> directors) {
+        if (previous.length != directors.size()) {
+            return false;
+        }
+        for (int i = 0; i < previous.length; i++) {
+            if (!sameDirector(previous[i], directors.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized void remove(String[] previous) {
+        if (previous == null) {
+            return;
+        }
+        for (String name : previous) {
+            movies--;
+            if (name != null) {
+                counts.add(names.key(name), name, -1);
+            }
+        }
+    }
+
+    // Adds the counts of a counter nobody writes to anymore
+    public synchronized void merge(DirectorCounter other) {
+        synchronized (other) {
+            counts.addAll(other.counts);
+            movies += other.movies;
+            pages += other.pages;
+            failedPages += other.failedPages;
+        }
+    }
+
+    public synchronized long count(String director) {
+        String name = names.canonicalize(director);
+        return name == null ? 0 : counts.get(names.key(name));
+    }
+
+    public String canonicalName(String director) {
+        return names.canonicalize(director);
+    }
+
+    public synchronized long movieCount() {
+        return movies;
+    }
+
+    public synchronized int pageCount() {
+        return pages;
+    }
+
+    public synchronized int failedPageCount() {
+        return failedPages;
+    }
+
+    public synchronized DirectorIndex toIndex() {
+        String[] directors = counts.names();
+        Arrays.sort(directors);
+        int[] directorCounts = new int[directors.length];
+        for (int i = 0; i < directors.length; i++) {
+            directorCounts[i] = counts.get(names.key(directors[i]));
+        }
+        return DirectorIndex.ofSorted(directors, directorCounts);
+    }
+
+    private boolean sameDirector(String stored, String director) {
+        // Stored names are canonical, so an exact match needs no normalization
+        if (stored != null && stored.equals(director)) {
+            return true;
+        }
+        String name = names.canonicalize(director);
+        return stored == null ? name == null : name != null && names.key(stored).equals(names.key(name));
+    }
+
+    // Returns the stored name the movie was counted under, or null for a movie without director
+    private String tally(String director) {
+        movies++;
+        // Only canonical names are stored, so an exact hit needs no normalization
+        if (director != null && !names.foldsCase()) {
+            String stored = counts.incrementExisting(director);
+            if (stored != null) {
+                return stored;
+            }
+        }
+        String name = names.canonicalize(director);
+        if (name == null) {
+            return null;
+        }
+        return counts.increment(names.key(name), name);
+    }
+}
@@ -0,0 +1,160 @@
+package domus.challenge.catalog;
+
+import domus.challenge.model.DirectorCount;
+import domus.challenge.model.Movie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Director counts of one catalog snapshot, grouped into bands of equal count. A threshold query is a
+ * binary search over the distinct counts; the alphabetical answer of each band is computed once and
+ * then shared by every request that lands in it.
+ */
+public class DirectorIndex {
+
+    private static final DirectorIndex EMPTY = new DirectorIndex(new String[0], new int[0]);
+
+    // Directors in alphabetical order with their counts in a parallel array
+    private final String[] directors;
+    private final int[] counts;
+    // Distinct counts ascending; bands[i] holds the directors with exactly bandCounts[i] movies
+    private final int[] bandCounts;
+    private final List<List<String>> bands;
+    // answers[i] holds the directors with at least bandCounts[i] movies, alphabetically
+    private final AtomicReferenceArray<List<String>> answers;
+
+    private DirectorIndex(String[] directors, int[] counts) {
+        this.directors = directors;
+        this.counts = counts;
+        bandCounts = Arrays.stream(counts).distinct().sorted().toArray();
+        bands = new ArrayList<>(bandCounts.length);
+        for (int i = 0; i < bandCounts.length; i++) {
+            bands.add(new ArrayList<>());
+        }
+        for (int i = 0; i < directors.length; i++) {
+            // Walking alphabetically keeps every band sorted
+            bands.get(Arrays.binarySearch(bandCounts, counts[i])).add(directors[i]);
+        }
+        answers = new AtomicReferenceArray<>(bandCounts.length);
+    }
+
+    public static DirectorIndex empty() {
+        return EMPTY;
+    }
+
+    public static DirectorIndex of(Map<String, ? extends Number> directorCounts) {
+        String[] directors = directorCounts.keySet().toArray(new String[0]);
+        Arrays.sort(directors);
+        int[] counts = new int[directors.length];
+        for (int i = 0; i < directors.length; i++) {
+            counts[i] = directorCounts.get(directors[i]).intValue();
+        }
+        return ofSorted(directors, counts);
+    }
+
+    // Takes ownership of the arrays; directors must be distinct and in alphabetical order
+    static DirectorIndex ofSorted(String[] directors, int[] counts) {
+        return directors.length == 0 ? EMPTY : new DirectorIndex(directors, counts);
+    }
+
+    public static DirectorIndex fromMovies(List<Movie> movies) {
+        DirectorCounter counter = new DirectorCounter();
+        counter.addMovies(movies);
+        return counter.toIndex();
+    }
+
+    public List<String> directorsAbove(int threshold) {
+        int band = firstBandAbove(threshold);
+        return band == bandCounts.length ? List.of() : answer(band);
+    }
+
+    // Highest threshold first, so every answer continues the merge sweep where the previous one stopped
+    public SortedMap<Integer, List<String>> directorsAbove(Collection<Integer> thresholds) {
+        SortedMap<Integer, List<String>> answers = new TreeMap<>();
+        for (int threshold : new TreeSet<>(thresholds).descendingSet()) {
+            answers.put(threshold, directorsAbove(threshold));
+        }
+        return answers;
+    }
+
+    // Most movies first, alphabetical among equal counts. The bands are already ordered by count,
+    // so this reads the top k without looking at the other directors
+    public List<DirectorCount> topDirectors(int k) {
+        List<DirectorCount> top = new ArrayList<>(Math.min(k, directors.length));
+        for (int band = bandCounts.length - 1; band >= 0 && top.size() < k; band--) {
+            for (String director : bands.get(band)) {
+                if (top.size() == k) {
+                    break;
+                }
+                top.add(new DirectorCount(director, bandCounts[band]));
+            }
+        }
+        return top;
+    }
+
+    public int size() {
+        return directors.length;
+    }
+
+    // i-th director in alphabetical order
+    String directorAt(int i) {
+        return directors[i];
+    }
+
+    int countAt(int i) {
+        return counts[i];
+    }
+
+    private int firstBandAbove(int threshold) {
+        int low = 0;
+        int high = bandCounts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bandCounts[mid] > threshold) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private List<String> answer(int band) {
+        List<String> cached = answers.get(band);
+        if (cached != null) {
+            return cached;
+        }
+        // Find the lowest band above this one that is already materialized, then sweep down to it
+        int start = band;
+        while (start + 1 < bandCounts.length && answers.get(start + 1) == null) {
+            start++;
+        }
+        List<String> above = start + 1 < bandCounts.length ? answers.get(start + 1) : List.of();
+        for (int i = start; i >= band; i--) {
+            above = Collections.unmodifiableList(merge(bands.get(i), above));
+            answers.compareAndSet(i, null, above);
+        }
+        return answers.get(band);
+    }
+
+    private static List<String> merge(List<String> left, List<String> right) {
+        List<String> merged = new ArrayList<>(left.size() + right.size());
+        int i = 0;
+        int j = 0;
+        while (i < left.size() && j < right.size()) {
+            merged.add(left.get(i).compareTo(right.get(j)) <= 0 ? left.get(i++) : right.get(j++));
+        }
+        merged.addAll(left.subList(i, left.size()));
+        merged.addAll(right.subList(j, right.size()));
+        return merged;
+    }
+}
@@ -0,0 +1,53 @@
+package domus.challenge.catalog;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Canonical form of director names: surrounding whitespace stripped and Unicode NFC, so "Woody Allen"
+ * and "Woody Allen " are one director. With case folding the count key is also lower-cased, while
+ * the first spelling seen is the one reported. Names already in canonical form are returned as is.
+ */
+public class DirectorNames {
+
+    public static final DirectorNames DEFAULT = new DirectorNames(false);
+
+    private final boolean foldCase;
+
+    public DirectorNames(boolean foldCase) {
+        this.foldCase = foldCase;
+    }
+
+    // Null for a missing or blank name
+    public String canonicalize(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String name = raw.strip();
+        if (name.isEmpty()) {
+            return null;
+        }
+        if (!isAscii(name) && !Normalizer.isNormalized(name, Normalizer.Form.NFC)) {
+            name = Normalizer.normalize(name, Normalizer.Form.NFC);
+        }
+        return name;
+    }
+
+    // What a canonical name is counted under
+    public String key(String canonicalName) {
+        return foldCase ? canonicalName.toLowerCase(Locale.ROOT) : canonicalName;
+    }
+
+    public boolean foldsCase() {
+        return foldCase;
+    }
+
+    private static boolean isAscii(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
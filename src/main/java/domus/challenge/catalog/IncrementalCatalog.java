@@ -0,0 +1,101 @@
+package domus.challenge.catalog;
+
+import domus.challenge.client.DirectorPage;
+import domus.challenge.client.PageValidator;
+import domus.challenge.client.PageValidators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Director counts kept across refreshes together with what every page contributed to them. A page
+ * the upstream reports as not modified, or whose directors are the same as last time, costs nothing;
+ * a changed page has its previous movies subtracted and its current ones added.
+ */
+class IncrementalCatalog implements PageValidators {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalCatalog.class);
+    private final DirectorCounter counter;
+    // Read by request threads for validators, written by the crawl as pages are folded
+    private final Map<Integer, StoredPage> pages = new ConcurrentHashMap<>();
+    // As reported by page 1 of the current crawl; other pages may carry the count of an older copy
+    private int totalPages;
+    private int changedPages;
+    private int unchangedPages;
+
+    IncrementalCatalog(DirectorNames names) {
+        this.counter = new DirectorCounter(names);
+    }
+
+    DirectorCounter counter() {
+        return counter;
+    }
+
+    @Override
+    public PageValidator validatorFor(int page) {
+        StoredPage stored = pages.get(page);
+        if (stored == null || (stored.etag == null && stored.lastModified == null)) {
+            return null;
+        }
+        return new PageValidator(stored.etag, stored.lastModified, stored.totalPages);
+    }
+
+    // Pages are applied one at a time, keyed by the page number that was requested
+    void apply(DirectorPage page) {
+        if (page.isFailed()) {
+            // Keep counting what the page held last time rather than dropping it
+            return;
+        }
+        if (page.getPage() == 1) {
+            totalPages = page.getTotalPages();
+        }
+        if (page.isNotModified()) {
+            unchangedPages++;
+            return;
+        }
+        StoredPage stored = pages.get(page.getPage());
+        String[] counted;
+        if (stored != null && counter.countsAsBefore(stored.directors, page.getDirectors())) {
+            unchangedPages++;
+            counted = stored.directors;
+        } else {
+            changedPages++;
+            counted = counter.replace(stored == null ? null : stored.directors, page.getDirectors());
+        }
+        pages.put(page.getPage(), new StoredPage(counted, page.getEtag(), page.getLastModified(), page.getTotalPages()));
+    }
+
+    void finishCrawl() {
+        // The catalog shrank: pages past its end no longer exist
+        Iterator<Map.Entry<Integer, StoredPage>> entries = pages.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Integer, StoredPage> entry = entries.next();
+            if (entry.getKey() > totalPages) {
+                counter.remove(entry.getValue().directors);
+                entries.remove();
+                changedPages++;
+            }
+        }
+        log.info("Incremental refresh: {} pages changed, {} unchanged", changedPages, unchangedPages);
+        changedPages = 0;
+        unchangedPages = 0;
+    }
+
+    private static class StoredPage {
+        // Names each movie of the page was counted under; null for movies without director
+        private final String[] directors;
+        private final String etag;
+        private final String lastModified;
+        private final int totalPages;
+
+        StoredPage(String[] directors, String etag, String lastModified, int totalPages) {
+            this.directors = directors;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.totalPages = totalPages;
+        }
+    }
+}
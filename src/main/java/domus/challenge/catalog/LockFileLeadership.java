@@ -0,0 +1,76 @@
+package domus.challenge.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Refresh leadership as an exclusive OS lock on a shared file. The operating system drops the lock when
+ * the leader's process exits, however it exits, so there is no lease to renew or to expire. Works for
+ * nodes on one machine or on a file system with working locks; in a single JVM only one holder wins.
+ */
+public class LockFileLeadership implements RefreshLeadership {
+
+    private static final Logger log = LoggerFactory.getLogger(LockFileLeadership.class);
+    private final Path path;
+    private FileChannel channel;
+    private FileLock lock;
+
+    public LockFileLeadership(Path path) {
+        this.path = path.toAbsolutePath();
+    }
+
+    @Override
+    public synchronized boolean tryAcquire() {
+        if (lock != null && lock.isValid()) {
+            return true;
+        }
+        try {
+            if (channel == null) {
+                Files.createDirectories(path.getParent());
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            }
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another holder in this JVM
+            lock = null;
+        } catch (IOException e) {
+            log.warn("Could not try the refresh lock {}: {}", path, e.getMessage());
+            lock = null;
+        }
+        if (lock != null) {
+            log.info("Acquired the catalog refresh lock {}; this node crawls the upstream", path);
+        }
+        return lock != null;
+    }
+
+    @Override
+    public synchronized boolean isLeader() {
+        return lock != null && lock.isValid();
+    }
+
+    @Override
+    public synchronized void release() {
+        try {
+            if (lock != null && lock.isValid()) {
+                lock.release();
+                log.info("Released the catalog refresh lock {}", path);
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not release the refresh lock {}: {}", path, e.getMessage());
+        } finally {
+            lock = null;
+            channel = null;
+        }
+    }
+}
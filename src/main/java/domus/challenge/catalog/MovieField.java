@@ -0,0 +1,47 @@
+package domus.challenge.catalog;
+
+import java.util.Locale;
+import java.util.Optional;
+
+// Movie attributes the movie table stores and queries can group or filter by
+public enum MovieField {
+    DIRECTOR(false, false),
+    RATED(false, false),
+    // Comma-separated upstream values, stored as one token per item
+    GENRE(false, true),
+    WRITER(false, true),
+    ACTOR(false, true),
+    YEAR(true, false),
+    // Minutes, parsed from values like "142 min"
+    RUNTIME(true, false);
+
+    private final boolean numeric;
+    private final boolean multiValued;
+
+    MovieField(boolean numeric, boolean multiValued) {
+        this.numeric = numeric;
+        this.multiValued = multiValued;
+    }
+
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    public boolean isMultiValued() {
+        return multiValued;
+    }
+
+    // Name used in query parameters
+    public String parameterName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Optional<MovieField> fromName(String name) {
+        for (MovieField field : values()) {
+            if (field.parameterName().equalsIgnoreCase(name.strip())) {
+                return Optional.of(field);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,67 @@
+package domus.challenge.catalog;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Count of movies per value of one field, over the movies that pass every filter. A text filter
+ * accepts a movie having any of its values; a range filter is inclusive and open where a bound is null.
+ * Only groups with more than the threshold movies are reported, as for /directors.
+ */
+public class MovieQuery {
+
+    private final MovieField groupBy;
+    private final Map<MovieField, List<String>> valueFilters = new EnumMap<>(MovieField.class);
+    private final Map<MovieField, Range> rangeFilters = new EnumMap<>(MovieField.class);
+    private int threshold;
+
+    public MovieQuery(MovieField groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public MovieQuery where(MovieField field, Collection<String> anyOf) {
+        if (field.isNumeric()) {
+            throw new IllegalArgumentException(field + " is numeric, filter it by range");
+        }
+        valueFilters.put(field, List.copyOf(anyOf));
+        return this;
+    }
+
+    public MovieQuery between(MovieField field, Integer from, Integer to) {
+        if (!field.isNumeric()) {
+            throw new IllegalArgumentException(field + " is not numeric");
+        }
+        rangeFilters.put(field, new Range(from == null ? Integer.MIN_VALUE : from, to == null ? Integer.MAX_VALUE : to));
+        return this;
+    }
+
+    public MovieQuery above(int threshold) {
+        this.threshold = threshold;
+        return this;
+    }
+
+    public MovieField getGroupBy() {
+        return groupBy;
+    }
+
+    public Map<MovieField, List<String>> getValueFilters() {
+        return valueFilters;
+    }
+
+    public Map<MovieField, Range> getRangeFilters() {
+        return rangeFilters;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public record Range(int from, int to) {
+
+        boolean contains(int value) {
+            return value >= from && value <= to;
+        }
+    }
+}
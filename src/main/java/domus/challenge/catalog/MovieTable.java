@@ -0,0 +1,303 @@
+package domus.challenge.catalog;
+
+import domus.challenge.model.GroupCount;
+import domus.challenge.model.Movie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * The movies of one catalog snapshot stored by column. Text values are dictionary-encoded, so a row
+ * holds small integer codes and a query compares codes instead of strings; multi-valued fields keep
+ * the codes of all rows in one array with per-row offsets. A query is a single scan over the rows.
+ */
+public class MovieTable {
+
+    private static final int UNKNOWN = -1;
+    private final int rows;
+    private final Map<MovieField, TextColumn> textColumns;
+    private final Map<MovieField, int[]> numericColumns;
+
+    private MovieTable(int rows, Map<MovieField, TextColumn> textColumns, Map<MovieField, int[]> numericColumns) {
+        this.rows = rows;
+        this.textColumns = textColumns;
+        this.numericColumns = numericColumns;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    // Distinct values of a text field
+    public int distinctValues(MovieField field) {
+        return textColumns.get(field).names.length;
+    }
+
+    // Groups with more than the threshold movies, alphabetically or in numeric order
+    public List<GroupCount> aggregate(MovieQuery query) {
+        List<TextFilter> textFilters = new ArrayList<>();
+        for (Map.Entry<MovieField, List<String>> filter : query.getValueFilters().entrySet()) {
+            TextColumn column = textColumns.get(filter.getKey());
+            boolean[] accepted = column.accepting(filter.getValue());
+            if (accepted == null) {
+                // None of the requested values occurs in the catalog
+                return List.of();
+            }
+            textFilters.add(new TextFilter(column, accepted));
+        }
+        List<RangeFilter> rangeFilters = new ArrayList<>();
+        query.getRangeFilters().forEach((field, range) -> rangeFilters.add(new RangeFilter(numericColumns.get(field), range)));
+
+        MovieField groupBy = query.getGroupBy();
+        return groupBy.isNumeric()
+                ? groupByNumber(numericColumns.get(groupBy), textFilters, rangeFilters, query.getThreshold())
+                : groupByText(textColumns.get(groupBy), textFilters, rangeFilters, query.getThreshold());
+    }
+
+    private List<GroupCount> groupByText(TextColumn column, List<TextFilter> textFilters,
+                                         List<RangeFilter> rangeFilters, int threshold) {
+        int[] counts = new int[column.names.length];
+        for (int row = 0; row < rows; row++) {
+            if (matches(row, textFilters, rangeFilters)) {
+                for (int i = column.offsets[row]; i < column.offsets[row + 1]; i++) {
+                    counts[column.codes[i]]++;
+                }
+            }
+        }
+        List<GroupCount> groups = new ArrayList<>();
+        for (int code : column.alphabetical) {
+            if (counts[code] > threshold) {
+                groups.add(new GroupCount(column.names[code], counts[code]));
+            }
+        }
+        return groups;
+    }
+
+    private List<GroupCount> groupByNumber(int[] column, List<TextFilter> textFilters,
+                                           List<RangeFilter> rangeFilters, int threshold) {
+        int min = Integer.MAX_VALUE;
+        int max = UNKNOWN;
+        for (int value : column) {
+            if (value != UNKNOWN) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        if (max == UNKNOWN) {
+            return List.of();
+        }
+        // Values are small and dense, years or minutes, so they index the counts directly
+        int[] counts = new int[max - min + 1];
+        for (int row = 0; row < rows; row++) {
+            if (column[row] != UNKNOWN && matches(row, textFilters, rangeFilters)) {
+                counts[column[row] - min]++;
+            }
+        }
+        List<GroupCount> groups = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > threshold) {
+                groups.add(new GroupCount(String.valueOf(min + i), counts[i]));
+            }
+        }
+        return groups;
+    }
+
+    private static boolean matches(int row, List<TextFilter> textFilters, List<RangeFilter> rangeFilters) {
+        for (RangeFilter filter : rangeFilters) {
+            int value = filter.column[row];
+            if (value == UNKNOWN || !filter.range.contains(value)) {
+                return false;
+            }
+        }
+        for (TextFilter filter : textFilters) {
+            if (!filter.matches(row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record TextFilter(TextColumn column, boolean[] accepted) {
+
+        boolean matches(int row) {
+            for (int i = column.offsets[row]; i < column.offsets[row + 1]; i++) {
+                if (accepted[column.codes[i]]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record RangeFilter(int[] column, MovieQuery.Range range) {
+    }
+
+    private static class TextColumn {
+        private final DirectorNames keys;
+        // Codes of row r are codes[offsets[r]] up to codes[offsets[r + 1]]
+        private final int[] offsets;
+        private final int[] codes;
+        // Reported spelling of each code, and the codes in alphabetical order of it
+        private final String[] names;
+        private final int[] alphabetical;
+        private final Map<String, Integer> codesByKey;
+
+        TextColumn(DirectorNames keys, int[] offsets, int[] codes, String[] names, Map<String, Integer> codesByKey) {
+            this.keys = keys;
+            this.offsets = offsets;
+            this.codes = codes;
+            this.names = names;
+            this.codesByKey = codesByKey;
+            this.alphabetical = IntStream.range(0, names.length)
+                    .boxed()
+                    .sorted(Comparator.comparing(code -> names[code]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        // Null when no value is known
+        boolean[] accepting(List<String> values) {
+            boolean[] accepted = new boolean[names.length];
+            boolean any = false;
+            for (String value : values) {
+                String name = keys.canonicalize(value);
+                Integer code = name == null ? null : codesByKey.get(keys.key(name));
+                if (code != null) {
+                    accepted[code] = true;
+                    any = true;
+                }
+            }
+            return any ? accepted : null;
+        }
+    }
+
+    /**
+     * Appends movies row by row; not thread-safe. Director names follow the catalog's naming, the
+     * other text fields ignore case and report the first spelling seen.
+     */
+    public static class Builder {
+        private final Map<MovieField, TextColumnBuilder> textColumns = new EnumMap<>(MovieField.class);
+        private final Map<MovieField, IntBuffer> numericColumns = new EnumMap<>(MovieField.class);
+        private int rows;
+
+        public Builder(DirectorNames directorNames) {
+            DirectorNames otherNames = new DirectorNames(true);
+            for (MovieField field : MovieField.values()) {
+                if (field.isNumeric()) {
+                    numericColumns.put(field, new IntBuffer());
+                } else {
+                    textColumns.put(field, new TextColumnBuilder(field == MovieField.DIRECTOR ? directorNames : otherNames));
+                }
+            }
+        }
+
+        public Builder add(Movie movie) {
+            textColumns.get(MovieField.DIRECTOR).addRow(movie.getDirector(), false);
+            textColumns.get(MovieField.RATED).addRow(movie.getRated(), false);
+            textColumns.get(MovieField.GENRE).addRow(movie.getGenre(), true);
+            textColumns.get(MovieField.WRITER).addRow(movie.getWriter(), true);
+            textColumns.get(MovieField.ACTOR).addRow(movie.getActors(), true);
+            numericColumns.get(MovieField.YEAR).add(movie.getYear() > 0 ? movie.getYear() : UNKNOWN);
+            numericColumns.get(MovieField.RUNTIME).add(minutes(movie.getRuntime()));
+            rows++;
+            return this;
+        }
+
+        public MovieTable build() {
+            Map<MovieField, TextColumn> text = new EnumMap<>(MovieField.class);
+            textColumns.forEach((field, column) -> text.put(field, column.build()));
+            Map<MovieField, int[]> numeric = new EnumMap<>(MovieField.class);
+            numericColumns.forEach((field, column) -> numeric.put(field, column.toArray()));
+            return new MovieTable(rows, text, numeric);
+        }
+
+        // Leading digits of values like "142 min"
+        static int minutes(String runtime) {
+            if (runtime == null) {
+                return UNKNOWN;
+            }
+            String value = runtime.strip();
+            int end = 0;
+            while (end < value.length() && end < 5 && Character.isDigit(value.charAt(end))) {
+                end++;
+            }
+            return end == 0 ? UNKNOWN : Integer.parseInt(value, 0, end, 10);
+        }
+    }
+
+    private static class TextColumnBuilder {
+        private final DirectorNames keys;
+        private final Map<String, Integer> codesByKey = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final IntBuffer offsets = new IntBuffer();
+        private final IntBuffer codes = new IntBuffer();
+        private final Set<Integer> rowCodes = new LinkedHashSet<>();
+
+        TextColumnBuilder(DirectorNames keys) {
+            this.keys = keys;
+            offsets.add(0);
+        }
+
+        void addRow(String raw, boolean multiValued) {
+            if (raw != null) {
+                if (multiValued) {
+                    for (String item : raw.split(",")) {
+                        addValue(item);
+                    }
+                } else {
+                    addValue(raw);
+                }
+                // A value listed twice in one movie still counts that movie once
+                for (int code : rowCodes) {
+                    codes.add(code);
+                }
+                rowCodes.clear();
+            }
+            offsets.add(codes.size());
+        }
+
+        private void addValue(String raw) {
+            String name = keys.canonicalize(raw);
+            if (name == null || name.equals("N/A")) {
+                return;
+            }
+            rowCodes.add(codesByKey.computeIfAbsent(keys.key(name), key -> {
+                names.add(name);
+                return names.size() - 1;
+            }));
+        }
+
+        TextColumn build() {
+            return new TextColumn(keys, offsets.toArray(), codes.toArray(), names.toArray(new String[0]),
+                    Map.copyOf(codesByKey));
+        }
+    }
+
+    private static class IntBuffer {
+        private int[] values = new int[64];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package domus.challenge.catalog;
+
+/**
+ * Decides which of several nodes sharing a catalog store crawls the upstream. Leadership is kept until
+ * released or until the node dies; the others keep trying, so one of them takes over.
+ */
+public interface RefreshLeadership {
+
+    // True when this node is, or has just become, the leader
+    boolean tryAcquire();
+
+    boolean isLeader();
+
+    void release();
+}
@@ -0,0 +1,174 @@
+package domus.challenge.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * AIMD limit on concurrent upstream calls. Every fast success grows the limit by 1/limit, which is
+ * about one extra slot per round of calls. A failure or a response slower than the latency threshold
+ * multiplies it by the backoff ratio. The limit always stays within [min, max].
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, int initialLimit,
+                                      Duration latencyThreshold, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency bounds must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+        return Mono.usingWhen(
+                acquire(),
+                permit -> call.get(),
+                permit -> release(permit, true),
+                (permit, error) -> release(permit, false),
+                permit -> release(permit, null));
+    }
+
+    // For callers on virtual threads: parks until a slot is free, then runs the call on the calling thread
+    public <T> T executeBlocking(Callable<T> call) throws Exception {
+        Permit permit;
+        try {
+            permit = acquire().block();
+        } catch (RuntimeException e) {
+            // block() wraps an interrupt while parked, after cancelling the wait; it is a cancel, not a failure
+            if (Exceptions.unwrap(e) instanceof InterruptedException || Thread.currentThread().isInterrupted()) {
+                Thread.interrupted();
+                throw new InterruptedException("Interrupted while waiting for a concurrency slot");
+            }
+            throw e;
+        }
+        Boolean succeeded = null;
+        try {
+            T result = call.call();
+            succeeded = true;
+            return result;
+        } catch (InterruptedException e) {
+            // Cancelled, like a disposed subscription; says nothing about the upstream
+            throw e;
+        } catch (Exception e) {
+            succeeded = false;
+            throw e;
+        } finally {
+            release(permit, succeeded).block();
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            Permit immediate = null;
+            synchronized (this) {
+                if (inFlight < (int) limit) {
+                    inFlight++;
+                    immediate = new Permit();
+                    waiter.permit = immediate;
+                } else {
+                    waiters.add(waiter);
+                }
+            }
+            sink.onCancel(() -> {
+                Permit granted;
+                synchronized (this) {
+                    if (waiters.remove(waiter)) {
+                        return;
+                    }
+                    granted = waiter.permit;
+                }
+                // Granted but possibly never handed over; the released flag prevents a double release
+                release(granted, null).subscribe();
+            });
+            if (immediate != null) {
+                sink.success(immediate);
+            }
+        });
+    }
+
+    // succeeded is null when the call was cancelled; that says nothing about the upstream
+    private Mono<Void> release(Permit permit, Boolean succeeded) {
+        return Mono.fromRunnable(() -> {
+            if (!permit.released.compareAndSet(false, true)) {
+                return;
+            }
+            long latency = System.nanoTime() - permit.startedAt;
+            Deque<Waiter> granted = new ArrayDeque<>();
+            synchronized (this) {
+                inFlight--;
+                if (succeeded != null) {
+                    adjust(succeeded && latency <= latencyThresholdNanos);
+                }
+                while (!waiters.isEmpty() && inFlight < (int) limit) {
+                    inFlight++;
+                    Waiter waiter = waiters.poll();
+                    waiter.permit = new Permit();
+                    granted.add(waiter);
+                }
+            }
+            // Complete waiters outside the lock, they start their upstream call synchronously
+            granted.forEach(waiter -> waiter.sink.success(waiter.permit));
+        });
+    }
+
+    private void adjust(boolean healthy) {
+        int before = (int) limit;
+        if (healthy) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        } else {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        }
+        if ((int) limit != before) {
+            log.debug("Upstream concurrency limit {} -> {}", before, (int) limit);
+        }
+    }
+
+    private static class Waiter {
+        private final MonoSink<Permit> sink;
+        private Permit permit;
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    private static class Permit {
+        private final long startedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+    }
+}
@@ -0,0 +1,204 @@
+package domus.challenge.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import domus.challenge.config.UpstreamProperties;
+import domus.challenge.model.MovieApiResponse;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * One upstream page over the JDK HttpClient, for the virtual-thread execution mode. The calling thread
+ * blocks for the whole exchange; errors are reported like the WebClient path reports them, so both
+ * modes retry and give up on the same conditions.
+ */
+class BlockingPageFetcher implements AutoCloseable {
+
+    private static final String MOVIES_SEARCH_PATH = "/api/movies/search";
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final boolean compression;
+    private final Duration pageTimeout;
+    // Bounds the body before and after decompression, as upstream.max-in-memory-size does for the WebClient
+    private final long maxInMemorySize;
+    private final DecodeMode decodeMode;
+    private final DirectorProjectionDecoder projectionDecoder;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    BlockingPageFetcher(UpstreamProperties upstream, Duration pageTimeout, DecodeMode decodeMode,
+                        DirectorProjectionDecoder projectionDecoder) {
+        // HTTP/2 only over TLS, as for the WebClient; plain-text upgrades are not worth a round trip
+        boolean http2 = upstream.isHttp2() && upstream.getBaseUrl().startsWith("https");
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(upstream.getConnectTimeout())
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .build();
+        this.baseUrl = upstream.getBaseUrl();
+        this.compression = upstream.isCompression();
+        this.pageTimeout = pageTimeout;
+        this.maxInMemorySize = upstream.getMaxInMemorySize().toBytes();
+        this.decodeMode = decodeMode;
+        this.projectionDecoder = projectionDecoder;
+    }
+
+    // The page timeout covers the whole exchange, body included, as the reactive path's timeout() does
+    DirectorPage fetch(int pageNumber, PageValidator validator) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + MOVIES_SEARCH_PATH + "?page=" + pageNumber))
+                .GET();
+        if (compression) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+        if (validator != null && validator.getEtag() != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, validator.getEtag());
+        }
+        if (validator != null && validator.getLastModified() != null) {
+            request.header(HttpHeaders.IF_MODIFIED_SINCE, validator.getLastModified());
+        }
+        HttpResponse<byte[]> response = exchange(request.build());
+        if (response.statusCode() == 304) {
+            if (validator == null) {
+                throw MovieCatalogClient.unsolicitedNotModified(pageNumber);
+            }
+            return DirectorPage.notModified(validator, pageNumber);
+        }
+        InputStream body = new ByteArrayInputStream(response.body());
+        if (response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).filter("gzip"::equalsIgnoreCase).isPresent()) {
+            try (InputStream inflated = new GZIPInputStream(body)) {
+                body = new ByteArrayInputStream(readLimited(inflated));
+            }
+        }
+        if (response.statusCode() >= 400) {
+            byte[] content;
+            try (InputStream error = body) {
+                content = error.readAllBytes();
+            }
+            throw WebClientResponseException.create(response.statusCode(), "Upstream error", null, content,
+                    StandardCharsets.UTF_8);
+        }
+        return MovieCatalogClient.requested(decode(body), pageNumber)
+                .withValidators(response.headers().firstValue(HttpHeaders.ETAG).orElse(null),
+                        response.headers().firstValue(HttpHeaders.LAST_MODIFIED).orElse(null));
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+        executor.close();
+    }
+
+    // Waits for the complete body; a stalled upstream times out and the exchange is aborted
+    private HttpResponse<byte[]> exchange(HttpRequest request) throws Exception {
+        CompletableFuture<HttpResponse<byte[]>> response = httpClient.sendAsync(request,
+                info -> new LimitedBody(maxInMemorySize));
+        try {
+            return response.get(pageTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } catch (TimeoutException e) {
+            throw new TimeoutException("No complete response within " + pageTimeout);
+        } finally {
+            response.cancel(true);
+        }
+    }
+
+    // One byte past the limit is enough to tell that the body outgrew it
+    private byte[] readLimited(InputStream input) throws IOException {
+        byte[] content = input.readNBytes((int) Math.min(maxInMemorySize + 1, Integer.MAX_VALUE - 8));
+        if (content.length > maxInMemorySize) {
+            throw new DataBufferLimitException("Exceeded limit on max bytes to buffer : " + maxInMemorySize);
+        }
+        return content;
+    }
+
+    private DirectorPage decode(InputStream body) {
+        if (decodeMode == DecodeMode.PROJECTION) {
+            return projectionDecoder.decode(body);
+        }
+        try (InputStream input = body) {
+            return DirectorPage.from(objectMapper.readValue(input, MovieApiResponse.class));
+        } catch (IOException e) {
+            throw new DecodingException("Failed to decode movies page: " + e.getMessage(), e);
+        }
+    }
+
+    // Collects the body like BodySubscribers.ofByteArray(), but stops reading once it outgrows the limit
+    private static class LimitedBody implements HttpResponse.BodySubscriber<byte[]> {
+
+        private final HttpResponse.BodySubscriber<byte[]> delegate = HttpResponse.BodySubscribers.ofByteArray();
+        private final long limit;
+        private Flow.Subscription subscription;
+        private long received;
+        private boolean exceeded;
+
+        LimitedBody(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (exceeded) {
+                return;
+            }
+            for (ByteBuffer item : items) {
+                received += item.remaining();
+            }
+            if (received > limit) {
+                exceeded = true;
+                subscription.cancel();
+                delegate.onError(new DataBufferLimitException("Exceeded limit on max bytes to buffer : " + limit));
+                return;
+            }
+            delegate.onNext(items);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            if (!exceeded) {
+                delegate.onError(error);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!exceeded) {
+                delegate.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package domus.challenge.client;
+
+public enum DecodeMode {
+    // Bind every page to MovieApiResponse/Movie with Jackson
+    POJO,
+    // Token-stream the page body and keep only total_pages and the Director values
+    PROJECTION
+}
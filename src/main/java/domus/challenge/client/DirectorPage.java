@@ -0,0 +1,102 @@
+package domus.challenge.client;
+
+import domus.challenge.model.Movie;
+import domus.challenge.model.MovieApiResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DirectorPage {
+    private final int page;
+    private final int totalPages;
+    private final List<String> directors;
+    private final boolean failed;
+    private final boolean notModified;
+    private final String etag;
+    private final String lastModified;
+    // Whole movies, kept only when the page was decoded into POJOs
+    private final List<Movie> movies;
+
+    public DirectorPage(int page, int totalPages, List<String> directors) {
+        this(page, totalPages, directors, false, false, null, null, null);
+    }
+
+    private DirectorPage(int page, int totalPages, List<String> directors, boolean failed, boolean notModified,
+                         String etag, String lastModified, List<Movie> movies) {
+        this.page = page;
+        this.totalPages = totalPages;
+        this.directors = directors;
+        this.failed = failed;
+        this.notModified = notModified;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.movies = movies;
+    }
+
+    // Placeholder for a page that could not be fetched, so the crawl can report itself as partial
+    public static DirectorPage failed(int page) {
+        return new DirectorPage(page, 0, List.of(), true, false, null, null, null);
+    }
+
+    // The upstream answered 304: the caller's copy is current, and this page carries no directors
+    public static DirectorPage notModified(PageValidator validator, int page) {
+        return new DirectorPage(page, validator.getTotalPages(), List.of(), false, true,
+                validator.getEtag(), validator.getLastModified(), null);
+    }
+
+    // Numbered as requested; the page field of the body is not trusted to key stored pages
+    public DirectorPage asPage(int requestedPage) {
+        if (requestedPage == page) {
+            return this;
+        }
+        return new DirectorPage(requestedPage, totalPages, directors, failed, notModified, etag, lastModified, movies);
+    }
+
+    public DirectorPage withValidators(String etag, String lastModified) {
+        return new DirectorPage(page, totalPages, directors, failed, notModified, etag, lastModified, movies);
+    }
+
+    public static DirectorPage from(MovieApiResponse response) {
+        List<Movie> data = response.getData() == null ? List.of() : response.getData();
+        List<String> directors = new ArrayList<>(data.size());
+        for (Movie movie : data) {
+            directors.add(movie.getDirector());
+        }
+        return new DirectorPage(response.getPage(), response.getTotal_pages(), directors, false, false, null, null,
+                data);
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public boolean isNotModified() {
+        return notModified;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    // Null unless the page was decoded into POJOs
+    public List<Movie> getMovies() {
+        return movies;
+    }
+
+    // One entry per movie on the page; entries may be null or blank
+    public List<String> getDirectors() {
+        return directors;
+    }
+}
@@ -0,0 +1,82 @@
+package domus.challenge.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DirectorProjectionDecoder {
+
+    private static final String DIRECTOR_FIELD = "Director";
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    // Releases the buffer once it has been read
+    public DirectorPage decode(DataBuffer body) {
+        return decode(body.asInputStream(true));
+    }
+
+    // Closes the stream once it has been read
+    public DirectorPage decode(InputStream body) {
+        try (InputStream input = body;
+             JsonParser parser = jsonFactory.createParser(input)) {
+            return readPage(parser);
+        } catch (IOException e) {
+            throw new DecodingException("Failed to decode movies page: " + e.getMessage(), e);
+        }
+    }
+
+    private DirectorPage readPage(JsonParser parser) throws IOException {
+        expect(parser.nextToken(), JsonToken.START_OBJECT, parser);
+        int page = 0;
+        int totalPages = 0;
+        List<String> directors = List.of();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "page" -> page = parser.getValueAsInt();
+                case "total_pages" -> totalPages = parser.getValueAsInt();
+                case "data" -> directors = value == JsonToken.START_ARRAY ? readDirectors(parser) : List.of();
+                // Skipped values are never materialized as Strings
+                default -> parser.skipChildren();
+            }
+        }
+        return new DirectorPage(page, totalPages, directors);
+    }
+
+    private List<String> readDirectors(JsonParser parser) throws IOException {
+        List<String> directors = new ArrayList<>();
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (element != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String director = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean isDirector = DIRECTOR_FIELD.equals(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (isDirector && value == JsonToken.VALUE_STRING) {
+                    director = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            directors.add(director);
+        }
+        return directors;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected, JsonParser parser) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual + " at " + parser.currentLocation());
+        }
+    }
+}
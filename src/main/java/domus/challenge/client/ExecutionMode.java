@@ -0,0 +1,8 @@
+package domus.challenge.client;
+
+public enum ExecutionMode {
+    // Non-blocking WebClient pipeline on the Netty event loops
+    REACTIVE,
+    // Blocking JDK HttpClient calls, one virtual thread per page
+    VIRTUAL_THREADS
+}
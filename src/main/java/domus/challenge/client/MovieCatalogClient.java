@@ -0,0 +1,355 @@
+package domus.challenge.client;
+
+import domus.challenge.config.CatalogProperties;
+import domus.challenge.config.UpstreamProperties;
+import domus.challenge.exception.UpstreamUnavailableException;
+import domus.challenge.model.MovieApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Clock;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class MovieCatalogClient {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieCatalogClient.class);
+    private static final String MOVIES_SEARCH_PATH = "/api/movies/search";
+    private final WebClient webClient;
+    private final DecodeMode decodeMode;
+    private final boolean speculative;
+    private final AtomicInteger lastKnownTotalPages = new AtomicInteger();
+    private final DirectorProjectionDecoder projectionDecoder = new DirectorProjectionDecoder();
+    // Shared across crawls so each refresh starts from the limit the previous one settled on
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final CatalogProperties.Resilience resilience;
+    private final CircuitBreaker circuitBreaker;
+    private final ObservationRegistry observationRegistry;
+    private final Counter retries;
+    private final Counter abandonedPages;
+    // Null unless pages are fetched on virtual threads
+    private final BlockingPageFetcher blockingPageFetcher;
+    private final VirtualThreadCrawler virtualThreadCrawler;
+
+    public MovieCatalogClient(WebClient webClient, CatalogProperties properties) {
+        this(webClient, properties, new UpstreamProperties(), new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+    }
+
+    public MovieCatalogClient(WebClient webClient, CatalogProperties properties, MeterRegistry meterRegistry,
+                              ObservationRegistry observationRegistry) {
+        this(webClient, properties, new UpstreamProperties(), meterRegistry, observationRegistry);
+    }
+
+    // The upstream properties are only read in the virtual-thread mode, which has its own HTTP client
+    @Autowired
+    public MovieCatalogClient(WebClient webClient, CatalogProperties properties, UpstreamProperties upstream,
+                              MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.webClient = webClient;
+        // The projection drops everything but the director, which the movie table needs
+        this.decodeMode = properties.getMovieTable().isEnabled() ? DecodeMode.POJO : properties.getCrawl().getDecodeMode();
+        if (decodeMode != properties.getCrawl().getDecodeMode()) {
+            log.warn("catalog.movie-table.enabled overrides catalog.crawl.decode-mode={}, pages are decoded as {}",
+                    properties.getCrawl().getDecodeMode(), decodeMode);
+        }
+        this.speculative = properties.getCrawl().isSpeculative();
+        CatalogProperties.Concurrency concurrency = properties.getCrawl().getConcurrency();
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(concurrency.getMin(), concurrency.getMax(),
+                concurrency.getInitial(), concurrency.getLatencyThreshold(), concurrency.getBackoffRatio());
+        this.resilience = properties.getCrawl().getResilience();
+        this.circuitBreaker = new CircuitBreaker(resilience.getCircuitFailureThreshold(),
+                resilience.getCircuitOpenDuration(), Clock.systemUTC());
+        this.observationRegistry = observationRegistry;
+        this.retries = Counter.builder("catalog.page.retries")
+                .description("Page requests repeated after a retryable failure")
+                .register(meterRegistry);
+        this.abandonedPages = Counter.builder("catalog.page.abandoned")
+                .description("Pages given up on after retries, leaving the crawl partial")
+                .register(meterRegistry);
+        Gauge.builder("catalog.crawl.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("catalog.crawl.concurrency.in.flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .register(meterRegistry);
+        if (properties.getCrawl().getExecution() == ExecutionMode.VIRTUAL_THREADS) {
+            this.blockingPageFetcher = new BlockingPageFetcher(upstream, resilience.getPageTimeout(), decodeMode,
+                    projectionDecoder);
+            this.virtualThreadCrawler = new VirtualThreadCrawler(blockingPageFetcher, resilience, concurrencyLimiter,
+                    circuitBreaker, observationRegistry, retries, abandonedPages,
+                    this::rememberTotalPages);
+            if (speculative) {
+                log.warn("Speculative crawling is not available on virtual threads and is ignored");
+            }
+        } else {
+            this.blockingPageFetcher = null;
+            this.virtualThreadCrawler = null;
+        }
+        log.info("Decoding upstream pages with {} mode, {} execution", decodeMode, properties.getCrawl().getExecution());
+    }
+
+    // The JDK HttpClient keeps its selector thread and connections until closed
+    @PreDestroy
+    public void stop() {
+        if (blockingPageFetcher != null) {
+            blockingPageFetcher.close();
+        }
+    }
+
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    public Flux<DirectorPage> fetchPages() {
+        return fetchPages(PageValidators.NONE);
+    }
+
+    // Pages with validators are requested conditionally and may come back as not modified
+    public Flux<DirectorPage> fetchPages(PageValidators validators) {
+        if (virtualThreadCrawler != null) {
+            return virtualThreadCrawler.fetchPages(validators);
+        }
+        return Flux.defer(() -> {
+            CrawlProgress progress = new CrawlProgress(validators);
+            int knownTotalPages = lastKnownTotalPages.get();
+            if (speculative && knownTotalPages > 1) {
+                return fetchPagesSpeculatively(knownTotalPages, progress);
+            }
+            // A failing first page fails the whole crawl, so callers can keep their previous data
+            return fetchResilient(1, progress)
+                    .flatMapMany(firstPage -> {
+                        int totalPages = recordTotalPages(firstPage, progress);
+                        // Page 1 is already here; only pages 2..N still need a round trip
+                        return remainingPages(firstPage, 2, totalPages, progress);
+                    });
+        });
+    }
+
+    public int getLastKnownTotalPages() {
+        return lastKnownTotalPages.get();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    // Pages 2..knownTotalPages start together with page 1; once page 1 reports the real count,
+    // pages past it are discarded and pages the guess missed are fetched
+    private Flux<DirectorPage> fetchPagesSpeculatively(int knownTotalPages, CrawlProgress progress) {
+        log.debug("Speculatively fetching {} pages", knownTotalPages);
+        Mono<DirectorPage> firstPage = fetchResilient(1, progress).cache();
+        Mono<Integer> totalPages = firstPage.map(page -> recordTotalPages(page, progress)).cache();
+
+        Flux<DirectorPage> guessed = Flux.range(2, knownTotalPages - 1)
+                .flatMap(pageNumber -> fetchPageOrFailed(pageNumber, progress)
+                        .filterWhen(page -> totalPages.map(total -> pageNumber <= total)),
+                        concurrencyLimiter.getMaxLimit());
+        Flux<DirectorPage> confirmed = firstPage.flatMapMany(page ->
+                remainingPages(page, knownTotalPages + 1, page.getTotalPages(), progress));
+
+        return Flux.merge(confirmed, guessed);
+    }
+
+    private Flux<DirectorPage> remainingPages(DirectorPage firstPage, int fromPage, int totalPages,
+                                              CrawlProgress progress) {
+        Flux<DirectorPage> first = totalPages >= 1 ? Flux.just(firstPage) : Flux.empty();
+        if (fromPage > totalPages) {
+            return first;
+        }
+        // The limiter decides how many of these actually run at once
+        return first.concatWith(Flux.range(fromPage, totalPages - fromPage + 1)
+                .flatMap(pageNumber -> fetchPageOrFailed(pageNumber, progress), concurrencyLimiter.getMaxLimit()));
+    }
+
+    private int recordTotalPages(DirectorPage firstPage, CrawlProgress progress) {
+        progress.totalPages = rememberTotalPages(firstPage);
+        return progress.totalPages;
+    }
+
+    private int rememberTotalPages(DirectorPage firstPage) {
+        int totalPages = firstPage.getTotalPages();
+        int previous = lastKnownTotalPages.getAndSet(totalPages);
+        if (previous != totalPages) {
+            log.info("Total pages to fetch: {} (previously {})", totalPages, previous);
+        }
+        return totalPages;
+    }
+
+    private Mono<DirectorPage> fetchPageOrFailed(int pageNumber, CrawlProgress progress) {
+        return fetchResilient(pageNumber, progress)
+                .onErrorResume(error -> {
+                    log.error("Giving up on page {}, the crawl will be partial: {}", pageNumber, error.getMessage());
+                    abandonedPages.increment();
+                    return Mono.just(DirectorPage.failed(pageNumber));
+                });
+    }
+
+    private Mono<DirectorPage> fetchResilient(int pageNumber, CrawlProgress progress) {
+        return hedged(pageNumber, progress)
+                .retryWhen(Retry.backoff(resilience.getMaxRetries(), resilience.getRetryBackoff())
+                        .maxBackoff(resilience.getRetryMaxBackoff())
+                        .jitter(resilience.getRetryJitter())
+                        .filter(MovieCatalogClient::isRetryable)
+                        .doBeforeRetry(signal -> {
+                            retries.increment();
+                            log.warn("Retrying page {} (attempt {}): {}",
+                                    pageNumber, signal.totalRetries() + 2, signal.failure().getMessage());
+                        })
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doFinally(signal -> progress.completedPages.incrementAndGet());
+    }
+
+    // Near the end of a crawl a single slow page holds up the whole result, so a second request
+    // races the first one once it has been pending for the hedge delay. A primary that fails before
+    // then fails right away and cancels the hedge; once started, the hedge may still win
+    private Mono<DirectorPage> hedged(int pageNumber, CrawlProgress progress) {
+        if (!resilience.isHedge()) {
+            return attempt(pageNumber, progress);
+        }
+        return Mono.defer(() -> {
+            Sinks.One<Boolean> primaryFailed = Sinks.one();
+            Mono<DirectorPage> primary = attempt(pageNumber, progress)
+                    .doOnError(error -> primaryFailed.tryEmitValue(true));
+            Mono<DirectorPage> hedge = Mono.delay(resilience.getHedgeDelay())
+                    .takeUntilOther(primaryFailed.asMono())
+                    .filter(tick -> progress.outstandingPages() <= resilience.getHedgeTailPages())
+                    .flatMap(tick -> {
+                        log.debug("Hedging slow tail page {}", pageNumber);
+                        return attempt(pageNumber, progress);
+                    });
+            return Mono.firstWithValue(primary, hedge)
+                    .onErrorMap(NoSuchElementException.class, MovieCatalogClient::firstCause);
+        });
+    }
+
+    // Errors must reach the limiter and the breaker before they are handled, they are congestion signals
+    private Mono<DirectorPage> attempt(int pageNumber, CrawlProgress progress) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Mono.error(new UpstreamUnavailableException("Upstream circuit is open"));
+            }
+            PageValidator validator = progress.validators.validatorFor(pageNumber);
+            return concurrencyLimiter.execute(() -> observed(pageNumber,
+                            fetchPage(pageNumber, validator).timeout(resilience.getPageTimeout())))
+                    .doOnSuccess(page -> circuitBreaker.onSuccess())
+                    .doOnError(error -> circuitBreaker.onFailure())
+                    .doOnCancel(circuitBreaker::onCancel);
+        });
+    }
+
+    // One timer sample and one span per request; time spent waiting for a limiter slot is not included
+    private Mono<DirectorPage> observed(int pageNumber, Mono<DirectorPage> request) {
+        return Mono.defer(() -> {
+            Observation observation = Observation.createNotStarted("catalog.page.fetch", observationRegistry)
+                    .contextualName("fetch catalog page")
+                    .highCardinalityKeyValue("page", String.valueOf(pageNumber))
+                    .start();
+            return request
+                    .doOnSuccess(page -> observation.lowCardinalityKeyValue("outcome",
+                            page.isNotModified() ? "not_modified" : "success"))
+                    .doOnError(error -> observation.lowCardinalityKeyValue("outcome", "error").error(error))
+                    // The losing request of a hedge, or a crawl nobody waits for anymore
+                    .doOnCancel(() -> observation.lowCardinalityKeyValue("outcome", "cancelled"))
+                    .doFinally(signal -> observation.stop())
+                    .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    private Mono<DirectorPage> fetchPage(int pageNumber, PageValidator validator) {
+        log.debug("Fetching page: {}", pageNumber);
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(MOVIES_SEARCH_PATH)
+                        .queryParam("page", pageNumber)
+                        .build())
+                .headers(headers -> {
+                    if (validator != null && validator.getEtag() != null) {
+                        headers.setIfNoneMatch(validator.getEtag());
+                    }
+                    if (validator != null && validator.getLastModified() != null) {
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, validator.getLastModified());
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                        return validator != null
+                                ? Mono.just(DirectorPage.notModified(validator, pageNumber))
+                                : response.releaseBody().then(Mono.error(unsolicitedNotModified(pageNumber)));
+                    }
+                    if (response.statusCode().isError()) {
+                        return response.createError();
+                    }
+                    Mono<DirectorPage> page = decodeMode == DecodeMode.PROJECTION
+                            ? response.bodyToMono(DataBuffer.class).map(projectionDecoder::decode)
+                            : response.bodyToMono(MovieApiResponse.class).map(DirectorPage::from);
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    return page.map(decoded -> requested(decoded, pageNumber).withValidators(
+                            headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED)));
+                })
+                .doOnError(error -> log.error("Error fetching page {}: {}", pageNumber, error.getMessage()));
+    }
+
+    static DirectorPage requested(DirectorPage decoded, int pageNumber) {
+        if (decoded.getPage() != pageNumber) {
+            log.warn("Upstream answered the request for page {} with a body for page {}", pageNumber, decoded.getPage());
+        }
+        return decoded.asPage(pageNumber);
+    }
+
+    // A 304 to a request without validators leaves nothing to reuse; it fails the page without a retry
+    static WebClientResponseException unsolicitedNotModified(int pageNumber) {
+        return WebClientResponseException.create(HttpStatus.NOT_MODIFIED.value(),
+                "Not Modified for unconditional request of page " + pageNumber, null, null, null);
+    }
+
+    static boolean isRetryable(Throwable error) {
+        if (error instanceof UpstreamUnavailableException || error instanceof DecodingException) {
+            return false;
+        }
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError()
+                    || response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        // Timeouts and connection failures
+        return true;
+    }
+
+    // Mono.firstWithValue reports "no value" when every racer failed; surface the original error instead
+    private static Throwable firstCause(NoSuchElementException error) {
+        return error.getCause() == null ? error : Exceptions.unwrapMultiple(error.getCause()).get(0);
+    }
+
+    private static class CrawlProgress {
+        private final PageValidators validators;
+        private volatile int totalPages;
+        private final AtomicInteger completedPages = new AtomicInteger();
+
+        CrawlProgress(PageValidators validators) {
+            this.validators = validators;
+        }
+
+        int outstandingPages() {
+            int total = totalPages;
+            return total == 0 ? Integer.MAX_VALUE : total - completedPages.get();
+        }
+    }
+}
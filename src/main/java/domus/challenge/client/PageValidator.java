@@ -0,0 +1,27 @@
+package domus.challenge.client;
+
+// HTTP validators of a page copy already held by the caller, sent to make the request conditional
+public class PageValidator {
+    private final String etag;
+    private final String lastModified;
+    private final int totalPages;
+
+    public PageValidator(String etag, String lastModified, int totalPages) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.totalPages = totalPages;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    // Page count the held copy reported; a 304 answer has no body to read it from
+    public int getTotalPages() {
+        return totalPages;
+    }
+}
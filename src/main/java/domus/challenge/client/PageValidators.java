@@ -0,0 +1,10 @@
+package domus.challenge.client;
+
+@FunctionalInterface
+public interface PageValidators {
+
+    PageValidators NONE = page -> null;
+
+    // Null when nothing is held for the page or the upstream gave no validators for it
+    PageValidator validatorFor(int page);
+}
@@ -0,0 +1,228 @@
+package domus.challenge.client;
+
+import domus.challenge.config.CatalogProperties;
+import domus.challenge.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * The crawl of MovieCatalogClient written as plain blocking code on virtual threads. Page 1 is fetched
+ * first; pages 2..N then each get a virtual thread inside one executor whose close() joins them all,
+ * so no page outlives the crawl. Retries, hedging, the circuit breaker and the adaptive limit behave
+ * as in the reactive pipeline, and a page given up on is reported as failed rather than failing the crawl.
+ */
+class VirtualThreadCrawler {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadCrawler.class);
+    private final BlockingPageFetcher fetcher;
+    private final CatalogProperties.Resilience resilience;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final ObservationRegistry observationRegistry;
+    private final Counter retries;
+    private final Counter abandonedPages;
+    // Records the total reported by page 1 and returns it
+    private final ToIntFunction<DirectorPage> totalPagesRecorder;
+
+    VirtualThreadCrawler(BlockingPageFetcher fetcher, CatalogProperties.Resilience resilience,
+                         AdaptiveConcurrencyLimiter concurrencyLimiter, CircuitBreaker circuitBreaker,
+                         ObservationRegistry observationRegistry, Counter retries, Counter abandonedPages,
+                         ToIntFunction<DirectorPage> totalPagesRecorder) {
+        this.fetcher = fetcher;
+        this.resilience = resilience;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.observationRegistry = observationRegistry;
+        this.retries = retries;
+        this.abandonedPages = abandonedPages;
+        this.totalPagesRecorder = totalPagesRecorder;
+    }
+
+    // Cancelling the subscription interrupts the crawl and every page still in flight
+    Flux<DirectorPage> fetchPages(PageValidators validators) {
+        return Flux.create(sink -> {
+            Thread crawl = Thread.ofVirtual()
+                    .name("catalog-crawl")
+                    .start(() -> crawl(new Progress(validators), sink));
+            sink.onDispose(crawl::interrupt);
+        });
+    }
+
+    private void crawl(Progress progress, FluxSink<DirectorPage> sink) {
+        try {
+            // A failing first page fails the whole crawl, so callers can keep their previous data
+            DirectorPage firstPage = fetchResilient(1, progress);
+            int totalPages = totalPagesRecorder.applyAsInt(firstPage);
+            progress.totalPages = totalPages;
+            if (totalPages >= 1) {
+                sink.next(firstPage);
+            }
+            try (ExecutorService pages = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int page = 2; page <= totalPages; page++) {
+                    int pageNumber = page;
+                    // The limiter decides how many of these actually hold a connection at once
+                    pages.submit(() -> fetchPageOrFailed(pageNumber, progress, sink));
+                }
+            }
+            sink.complete();
+        } catch (InterruptedException e) {
+            // Nobody is listening anymore
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            sink.error(e);
+        }
+    }
+
+    private void fetchPageOrFailed(int pageNumber, Progress progress, FluxSink<DirectorPage> sink) {
+        try {
+            sink.next(fetchResilient(pageNumber, progress));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Giving up on page {}, the crawl will be partial: {}", pageNumber, e.getMessage());
+            abandonedPages.increment();
+            sink.next(DirectorPage.failed(pageNumber));
+        }
+    }
+
+    private DirectorPage fetchResilient(int pageNumber, Progress progress) throws Exception {
+        try {
+            for (int retry = 0; ; retry++) {
+                try {
+                    return hedged(pageNumber, progress);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    if (retry >= resilience.getMaxRetries() || !MovieCatalogClient.isRetryable(e)) {
+                        throw e;
+                    }
+                    retries.increment();
+                    log.warn("Retrying page {} (attempt {}): {}", pageNumber, retry + 2, e.getMessage());
+                    Thread.sleep(backoff(retry));
+                }
+            }
+        } finally {
+            progress.completedPages.incrementAndGet();
+        }
+    }
+
+    // Exponential with jitter and a cap, like reactor's Retry.backoff
+    private long backoff(int retry) {
+        long min = resilience.getRetryBackoff().toMillis();
+        long max = resilience.getRetryMaxBackoff().toMillis();
+        long delay = Math.min(max, min << Math.min(retry, 30));
+        long offset = (long) (delay * resilience.getRetryJitter());
+        long jittered = delay + (offset == 0 ? 0 : ThreadLocalRandom.current().nextLong(-offset, offset + 1));
+        return Math.max(min, Math.min(max, jittered));
+    }
+
+    // Near the end of a crawl a single slow page holds up the whole result, so a second request
+    // races the first one once it has been pending for the hedge delay
+    private DirectorPage hedged(int pageNumber, Progress progress) throws Exception {
+        if (!resilience.isHedge()) {
+            return attempt(pageNumber, progress);
+        }
+        ExecutorService racers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            CompletionService<DirectorPage> race = new ExecutorCompletionService<>(racers);
+            race.submit(() -> attempt(pageNumber, progress));
+            int running = 1;
+            Future<DirectorPage> finished = race.poll(resilience.getHedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+            if (finished == null && progress.outstandingPages() <= resilience.getHedgeTailPages()) {
+                log.debug("Hedging slow tail page {}", pageNumber);
+                race.submit(() -> attempt(pageNumber, progress));
+                running++;
+            }
+            Exception firstFailure = null;
+            while (running > 0) {
+                Future<DirectorPage> next = finished != null ? finished : race.take();
+                finished = null;
+                running--;
+                try {
+                    return next.get();
+                } catch (ExecutionException e) {
+                    if (firstFailure == null) {
+                        firstFailure = e.getCause() instanceof Exception cause ? cause : e;
+                    }
+                }
+            }
+            throw firstFailure;
+        } finally {
+            // Interrupts the losing request
+            racers.shutdownNow();
+        }
+    }
+
+    // Errors must reach the limiter and the breaker before they are handled, they are congestion signals
+    private DirectorPage attempt(int pageNumber, Progress progress) throws Exception {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new UpstreamUnavailableException("Upstream circuit is open");
+        }
+        PageValidator validator = progress.validators.validatorFor(pageNumber);
+        try {
+            DirectorPage page = concurrencyLimiter.executeBlocking(() -> observed(pageNumber, validator));
+            circuitBreaker.onSuccess();
+            return page;
+        } catch (InterruptedException e) {
+            circuitBreaker.onCancel();
+            throw e;
+        } catch (Exception e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+    }
+
+    // One timer sample and one span per request; time spent waiting for a limiter slot is not included
+    private DirectorPage observed(int pageNumber, PageValidator validator) throws Exception {
+        Observation observation = Observation.createNotStarted("catalog.page.fetch", observationRegistry)
+                .contextualName("fetch catalog page")
+                .highCardinalityKeyValue("page", String.valueOf(pageNumber))
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            log.debug("Fetching page: {}", pageNumber);
+            DirectorPage page = fetcher.fetch(pageNumber, validator);
+            observation.lowCardinalityKeyValue("outcome", page.isNotModified() ? "not_modified" : "success");
+            return page;
+        } catch (InterruptedException e) {
+            observation.lowCardinalityKeyValue("outcome", "cancelled");
+            throw e;
+        } catch (Exception e) {
+            log.error("Error fetching page {}: {}", pageNumber, e.getMessage());
+            observation.lowCardinalityKeyValue("outcome", "error").error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private static class Progress {
+        private final PageValidators validators;
+        private volatile int totalPages;
+        private final AtomicInteger completedPages = new AtomicInteger();
+
+        Progress(PageValidators validators) {
+            this.validators = validators;
+        }
+
+        int outstandingPages() {
+            int total = totalPages;
+            return total == 0 ? Integer.MAX_VALUE : total - completedPages.get();
+        }
+    }
+}
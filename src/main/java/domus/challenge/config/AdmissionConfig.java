@@ -0,0 +1,19 @@
+package domus.challenge.config;
+
+import domus.challenge.controller.AdmissionControlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+    public AdmissionControlFilter admissionControlFilter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        return new AdmissionControlFilter(properties, meterRegistry);
+    }
+}
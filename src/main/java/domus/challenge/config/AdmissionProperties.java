@@ -0,0 +1,59 @@
+package domus.challenge.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+
+    // Shed load on the API endpoints instead of letting every burst pile up on the event loop
+    private boolean enabled = true;
+    // Requests handled at once; further ones wait in a queue of at most maxQueued
+    private int maxConcurrent = 256;
+    private int maxQueued = 512;
+    // A queued request still without a slot after this is rejected
+    private Duration queueTimeout = Duration.ofMillis(500);
+    // Sent in the Retry-After header of a rejection, rounded up to whole seconds
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+
+    public Duration getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    public void setQueueTimeout(Duration queueTimeout) {
+        this.queueTimeout = queueTimeout;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
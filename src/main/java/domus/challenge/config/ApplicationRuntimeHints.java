@@ -0,0 +1,24 @@
+package domus.challenge.config;
+
+import domus.challenge.model.DirectorsResponse;
+import domus.challenge.model.Movie;
+import domus.challenge.model.MovieApiResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for the native image. Spring's AOT processing registers the types in controller
+ * signatures; these are bound by Jackson out of its sight: upstream pages decoded by the catalog client
+ * and the /directors answers, which the controller only sees as pre-serialized bytes.
+ */
+public class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingHints.registerReflectionHints(hints.reflection(),
+                Movie.class, MovieApiResponse.class, DirectorsResponse.class);
+    }
+}
@@ -0,0 +1,393 @@
+package domus.challenge.config;
+
+import domus.challenge.client.DecodeMode;
+import domus.challenge.client.ExecutionMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "catalog")
+public class CatalogProperties {
+
+    private final Refresh refresh = new Refresh();
+    private final Crawl crawl = new Crawl();
+    private final Persistence persistence = new Persistence();
+    private final Aggregation aggregation = new Aggregation();
+    private final MovieTable movieTable = new MovieTable();
+    private final Cluster cluster = new Cluster();
+
+    public Refresh getRefresh() {
+        return refresh;
+    }
+
+    public Persistence getPersistence() {
+        return persistence;
+    }
+
+    public Crawl getCrawl() {
+        return crawl;
+    }
+
+    public Aggregation getAggregation() {
+        return aggregation;
+    }
+
+    public MovieTable getMovieTable() {
+        return movieTable;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public static class Refresh {
+        // Periodically re-crawl the upstream in the background
+        private boolean enabled = true;
+        private Duration interval = Duration.ofMinutes(5);
+        // A snapshot older than this is still served, but triggers a revalidation
+        private Duration staleAfter = Duration.ofMinutes(5);
+        // Keep per-page contents between refreshes and only recount pages that changed
+        private boolean incremental = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public Duration getStaleAfter() {
+            return staleAfter;
+        }
+
+        public void setStaleAfter(Duration staleAfter) {
+            this.staleAfter = staleAfter;
+        }
+
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        public void setIncremental(boolean incremental) {
+            this.incremental = incremental;
+        }
+    }
+
+    public static class Persistence {
+        // Write each complete snapshot to disk and serve it on the next boot while a refresh runs
+        private boolean enabled = false;
+        private Path path = Path.of("data", "catalog.snapshot");
+        // Older snapshot files are ignored on boot
+        private Duration maxAge = Duration.ofHours(24);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public void setPath(Path path) {
+            this.path = path;
+        }
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+    }
+
+    public static class Aggregation {
+        // Count "WOODY ALLEN" and "Woody Allen" as one director, reported with the first spelling seen
+        private boolean foldCase = false;
+        // Movie lists at least this large are counted in partitions on the aggregation scheduler
+        private int parallelThreshold = 200_000;
+        // Threads of the aggregation scheduler; 0 means one per available processor
+        private int parallelism = 0;
+
+        public boolean isFoldCase() {
+            return foldCase;
+        }
+
+        public void setFoldCase(boolean foldCase) {
+            this.foldCase = foldCase;
+        }
+
+        public int getParallelThreshold() {
+            return parallelThreshold;
+        }
+
+        public void setParallelThreshold(int parallelThreshold) {
+            this.parallelThreshold = parallelThreshold;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class Cluster {
+        // Nodes sharing catalog.persistence.path elect one of them to crawl; the others load its snapshots
+        private boolean enabled = false;
+        // Held by the crawling node; must be on the same file system as the snapshot
+        private Path lockPath = Path.of("data", "catalog.lock");
+        // How often a node tries to become leader, and a follower checks the store for a newer snapshot
+        private Duration pollInterval = Duration.ofSeconds(5);
+        // A follower without any snapshot waits this long for the leader to publish one, then crawls itself
+        private Duration followerWait = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Path getLockPath() {
+            return lockPath;
+        }
+
+        public void setLockPath(Path lockPath) {
+            this.lockPath = lockPath;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public Duration getFollowerWait() {
+            return followerWait;
+        }
+
+        public void setFollowerWait(Duration followerWait) {
+            this.followerWait = followerWait;
+        }
+    }
+
+    public static class MovieTable {
+        // Keep every movie of the snapshot in columns for /api/movies/aggregate; needs whole movies,
+        // so pages are decoded into POJOs whatever the decode mode says
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Crawl {
+        private DecodeMode decodeMode = DecodeMode.PROJECTION;
+        private ExecutionMode execution = ExecutionMode.REACTIVE;
+        // Fetch pages 2..N from the last known page count while page 1 is still in flight
+        private boolean speculative = false;
+        private final Concurrency concurrency = new Concurrency();
+        private final Resilience resilience = new Resilience();
+
+        public DecodeMode getDecodeMode() {
+            return decodeMode;
+        }
+
+        public void setDecodeMode(DecodeMode decodeMode) {
+            this.decodeMode = decodeMode;
+        }
+
+        public ExecutionMode getExecution() {
+            return execution;
+        }
+
+        public void setExecution(ExecutionMode execution) {
+            this.execution = execution;
+        }
+
+        public boolean isSpeculative() {
+            return speculative;
+        }
+
+        public void setSpeculative(boolean speculative) {
+            this.speculative = speculative;
+        }
+
+        public Concurrency getConcurrency() {
+            return concurrency;
+        }
+
+        public Resilience getResilience() {
+            return resilience;
+        }
+    }
+
+    public static class Concurrency {
+        // Bounds and starting point of the adaptive limit on concurrent page fetches
+        private int min = 2;
+        private int max = 32;
+        private int initial = 5;
+        // A page slower than this counts as congestion, like a failure
+        private Duration latencyThreshold = Duration.ofSeconds(2);
+        private double backoffRatio = 0.7;
+
+        public int getMin() {
+            return min;
+        }
+
+        public void setMin(int min) {
+            this.min = min;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        public void setMax(int max) {
+            this.max = max;
+        }
+
+        public int getInitial() {
+            return initial;
+        }
+
+        public void setInitial(int initial) {
+            this.initial = initial;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+    }
+
+    public static class Resilience {
+        private Duration pageTimeout = Duration.ofSeconds(5);
+        private int maxRetries = 2;
+        private Duration retryBackoff = Duration.ofMillis(200);
+        private Duration retryMaxBackoff = Duration.ofSeconds(2);
+        private double retryJitter = 0.5;
+        // A duplicate request is sent for a page still pending after the hedge delay,
+        // once no more than hedgeTailPages pages of the crawl are outstanding
+        private boolean hedge = true;
+        private Duration hedgeDelay = Duration.ofSeconds(1);
+        private int hedgeTailPages = 2;
+        private int circuitFailureThreshold = 5;
+        private Duration circuitOpenDuration = Duration.ofSeconds(30);
+
+        public Duration getPageTimeout() {
+            return pageTimeout;
+        }
+
+        public void setPageTimeout(Duration pageTimeout) {
+            this.pageTimeout = pageTimeout;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public Duration getRetryMaxBackoff() {
+            return retryMaxBackoff;
+        }
+
+        public void setRetryMaxBackoff(Duration retryMaxBackoff) {
+            this.retryMaxBackoff = retryMaxBackoff;
+        }
+
+        public double getRetryJitter() {
+            return retryJitter;
+        }
+
+        public void setRetryJitter(double retryJitter) {
+            this.retryJitter = retryJitter;
+        }
+
+        public boolean isHedge() {
+            return hedge;
+        }
+
+        public void setHedge(boolean hedge) {
+            this.hedge = hedge;
+        }
+
+        public Duration getHedgeDelay() {
+            return hedgeDelay;
+        }
+
+        public void setHedgeDelay(Duration hedgeDelay) {
+            this.hedgeDelay = hedgeDelay;
+        }
+
+        public int getHedgeTailPages() {
+            return hedgeTailPages;
+        }
+
+        public void setHedgeTailPages(int hedgeTailPages) {
+            this.hedgeTailPages = hedgeTailPages;
+        }
+
+        public int getCircuitFailureThreshold() {
+            return circuitFailureThreshold;
+        }
+
+        public void setCircuitFailureThreshold(int circuitFailureThreshold) {
+            this.circuitFailureThreshold = circuitFailureThreshold;
+        }
+
+        public Duration getCircuitOpenDuration() {
+            return circuitOpenDuration;
+        }
+
+        public void setCircuitOpenDuration(Duration circuitOpenDuration) {
+            this.circuitOpenDuration = circuitOpenDuration;
+        }
+    }
+}
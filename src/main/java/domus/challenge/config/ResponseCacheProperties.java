@@ -0,0 +1,29 @@
+package domus.challenge.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "directors.response-cache")
+public class ResponseCacheProperties {
+
+    // Serialized bodies kept across all thresholds of the current snapshot, gzip copies included
+    private DataSize maxSize = DataSize.ofMegabytes(16);
+    // Bodies at least this large also get a gzip copy for clients that accept it
+    private DataSize compressAbove = DataSize.ofKilobytes(1);
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public DataSize getCompressAbove() {
+        return compressAbove;
+    }
+
+    public void setCompressAbove(DataSize compressAbove) {
+        this.compressAbove = compressAbove;
+    }
+}
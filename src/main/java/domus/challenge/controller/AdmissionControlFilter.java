@@ -0,0 +1,186 @@
+package domus.challenge.controller;
+
+import domus.challenge.config.AdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounds the API requests handled at once. A request over the limit waits in a bounded FIFO queue for
+ * a slot; when the queue is full, or the wait exceeds the queue timeout, it is answered right away
+ * with 503 and Retry-After instead of adding latency for everyone. Health checks and the SSE stream,
+ * which holds its connection for as long as the client listens, are not counted.
+ */
+public class AdmissionControlFilter implements WebFilter, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+    // Handed out instead of a permit when the request is shed
+    private static final Permit SHED = new Permit();
+    private static final byte[] BUSY_BODY = "{\"error\":\"Server is busy, retry later\"}".getBytes(StandardCharsets.UTF_8);
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Duration queueTimeout;
+    private final String retryAfterSeconds;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final Counter queueFull;
+    private final Counter queueTimedOut;
+    private int inFlight;
+
+    public AdmissionControlFilter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.maxConcurrent = properties.getMaxConcurrent();
+        this.maxQueued = properties.getMaxQueued();
+        this.queueTimeout = properties.getQueueTimeout();
+        long retryAfterMillis = properties.getRetryAfter().toMillis();
+        this.retryAfterSeconds = String.valueOf(Math.max(1, (retryAfterMillis + 999) / 1000));
+        this.queueFull = rejections(meterRegistry, "queue-full");
+        this.queueTimedOut = rejections(meterRegistry, "queue-timeout");
+        Gauge.builder("http.admission.in.flight", this, AdmissionControlFilter::getInFlight)
+                .register(meterRegistry);
+        Gauge.builder("http.admission.queued", this, AdmissionControlFilter::getQueued)
+                .register(meterRegistry);
+    }
+
+    // Ahead of everything else, so a shed request costs as little as possible
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!isAdmissionControlled(exchange.getRequest().getPath().value())) {
+            return chain.filter(exchange);
+        }
+        // The slot is released through the waiter, which also covers a permit granted as the request is cancelled
+        return Mono.defer(() -> {
+            Waiter waiter = new Waiter();
+            return acquire(waiter)
+                    .flatMap(permit -> permit == SHED ? reject(exchange.getResponse()) : chain.filter(exchange))
+                    .doFinally(signal -> leave(waiter));
+        });
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    static boolean isAdmissionControlled(String path) {
+        return path.startsWith("/api/") && !path.equals("/api/health") && !path.equals("/api/directors/stream");
+    }
+
+    private Mono<Permit> acquire(Waiter waiter) {
+        Mono<Permit> queued = Mono.create(sink -> {
+            waiter.sink = sink;
+            // Registered before queueing, so a timeout can never miss a waiter
+            sink.onCancel(() -> leave(waiter));
+            Permit immediate = null;
+            boolean queueIsFull = false;
+            synchronized (this) {
+                // Cancelled before it got this far; nothing to admit
+                if (waiter.left) {
+                    return;
+                }
+                if (inFlight < maxConcurrent) {
+                    inFlight++;
+                    immediate = new Permit();
+                    waiter.permit = immediate;
+                } else if (waiters.size() < maxQueued) {
+                    waiters.add(waiter);
+                } else {
+                    queueIsFull = true;
+                }
+            }
+            if (immediate != null) {
+                sink.success(immediate);
+                return;
+            }
+            if (queueIsFull) {
+                queueFull.increment();
+                sink.success(SHED);
+            }
+        });
+        return queued.timeout(queueTimeout, Mono.fromSupplier(() -> {
+            queueTimedOut.increment();
+            return SHED;
+        }));
+    }
+
+    // Once done with, timed out or cancelled: leaves the queue, or hands on whatever slot was granted
+    private void leave(Waiter waiter) {
+        Permit granted;
+        synchronized (this) {
+            waiter.left = true;
+            if (waiters.remove(waiter)) {
+                return;
+            }
+            granted = waiter.permit;
+        }
+        release(granted);
+    }
+
+    private void release(Permit permit) {
+        if (permit == null || permit == SHED || !permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        Waiter next;
+        synchronized (this) {
+            next = waiters.poll();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+            // The slot passes straight to the oldest waiter
+            next.permit = new Permit();
+        }
+        next.sink.success(next.permit);
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        log.debug("Shedding request: {} in flight, {} queued", getInFlight(), getQueued());
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory().wrap(BUSY_BODY);
+        return response.writeWith(Mono.just(body));
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("http.admission.rejected")
+                .description("API requests answered with 503 because the server was saturated")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static class Waiter {
+        private MonoSink<Permit> sink;
+        private Permit permit;
+        private boolean left;
+    }
+
+    private static class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+    }
+}
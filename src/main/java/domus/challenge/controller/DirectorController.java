@@ -1,7 +1,13 @@
 package domus.challenge.controller;
 
+import domus.challenge.exception.InvalidThresholdsException;
+import domus.challenge.exception.UpstreamUnavailableException;
+import domus.challenge.model.DirectorEvent;
+import domus.challenge.model.DirectorsBatchResponse;
 import domus.challenge.model.DirectorsResponse;
+import domus.challenge.model.TopDirectorsResponse;
 import domus.challenge.service.DirectorService;
+import domus.challenge.service.DirectorsResult;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,14 +18,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.DigestUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 @RestController
 @RequestMapping("/api")
@@ -28,10 +48,14 @@ import java.util.Map;
 public class DirectorController {
 
     private static final Logger log = LoggerFactory.getLogger(DirectorController.class);
+    private static final int MAX_BATCH_THRESHOLDS = 1000;
+    private static final int MAX_TOP_DIRECTORS = 10000;
     private final DirectorService directorService;
+    private final DirectorsResponseCache responseCache;
 
-    public DirectorController(DirectorService directorService) {
+    public DirectorController(DirectorService directorService, DirectorsResponseCache responseCache) {
         this.directorService = directorService;
+        this.responseCache = responseCache;
     }
 
     @GetMapping("/health")
@@ -44,7 +68,8 @@ public class DirectorController {
     @Operation(
         summary = "Get directors with movie count above threshold",
         description = "Retrieves a list of directors who have directed more movies than the specified threshold. " +
-                     "The results are sorted alphabetically. Negative threshold values return an empty list."
+                     "The results are sorted alphabetically. Negative threshold values return an empty list. " +
+                     "'complete' is false when some upstream pages could not be fetched and the list may be missing directors."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -54,10 +79,14 @@ public class DirectorController {
                 mediaType = "application/json",
                 schema = @Schema(implementation = DirectorsResponse.class),
                 examples = @ExampleObject(
-                    value = "{\"directors\": [\"Martin Scorsese\", \"Woody Allen\"]}"
+                    value = "{\"directors\": [\"Martin Scorsese\", \"Woody Allen\"], \"complete\": true}"
                 )
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "If-None-Match matched the ETag: the catalog snapshot has not changed since"
+        ),
         @ApiResponse(
             responseCode = "400",
             description = "Invalid threshold parameter",
@@ -77,27 +106,289 @@ public class DirectorController {
                     value = "{\"error\": \"An error occurred while processing the request\"}"
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Upstream movie API unavailable and no cached catalog to answer from",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"directors\": []}"
+                )
+            )
         )
     })
-    public Mono<ResponseEntity<DirectorsResponse>> getDirectorsAboveThreshold(
+    public Mono<ResponseEntity<byte[]>> getDirectorsAboveThreshold(
             @Parameter(
                 description = "Minimum number of movies a director must have directed to be included in results",
                 example = "4",
                 required = true
             )
-            @RequestParam("threshold") @Min(0) int threshold) {
+            @RequestParam("threshold") @Min(0) int threshold,
+            ServerHttpRequest request) {
         
         log.info("Received request for directors with threshold: {}", threshold);
         
-        return directorService.getDirectorsAboveThreshold(threshold)
-                .map(directors -> {
-                    log.info("Found {} directors above threshold {}", directors.size(), threshold);
-                    return ResponseEntity.ok(new DirectorsResponse(directors));
+        return directorService.getDirectors(threshold)
+                .map(result -> {
+                    log.info("Found {} directors above threshold {}", result.getDirectors().size(), threshold);
+                    if (!result.isComplete()) {
+                        log.warn("Answering threshold {} from a partial catalog", threshold);
+                    }
+                    ResponseEntity<byte[]> notModified = notModified(result, threshold, request);
+                    if (notModified != null) {
+                        return notModified;
+                    }
+                    // Serialized once per snapshot and threshold; every later request writes the same bytes
+                    DirectorsResponseCache.Body body = responseCache.body(result, threshold);
+                    if (body.getGzip() == null) {
+                        return cacheable(result.getSnapshotVersion(), result.getFreshUntil(), result.isComplete(),
+                                "t" + threshold)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(body.getJson());
+                    }
+                    boolean gzip = acceptsGzip(request);
+                    // The compressed copy is a different representation, so it gets its own strong ETag
+                    return cacheable(result.getSnapshotVersion(), result.getFreshUntil(), result.isComplete(),
+                            "t" + threshold + (gzip ? "-gz" : ""))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                            .headers(headers -> {
+                                if (gzip) {
+                                    headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                                }
+                            })
+                            .body(gzip ? body.getGzip() : body.getJson());
                 })
                 .onErrorResume(error -> {
                     log.error("Error processing directors request: {}", error.getMessage());
-                    return Mono.just(ResponseEntity.internalServerError()
-                            .body(new DirectorsResponse(List.of())));
+                    HttpStatus status = error instanceof UpstreamUnavailableException
+                            ? HttpStatus.SERVICE_UNAVAILABLE
+                            : HttpStatus.INTERNAL_SERVER_ERROR;
+                    return Mono.just(ResponseEntity.status(status)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(responseCache.emptyBody().getJson()));
+                });
+    }
+
+    @GetMapping("/directors/batch")
+    @Operation(
+        summary = "Get directors above several thresholds at once",
+        description = "Answers every threshold from the same catalog snapshot. Pass either a list of thresholds " +
+                     "or an inclusive range with 'from' and 'to'; at most " + MAX_BATCH_THRESHOLDS + " thresholds per request."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Directors for each requested threshold",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = DirectorsBatchResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"directors\": {\"4\": [\"Martin Scorsese\", \"Woody Allen\"], \"5\": [\"Woody Allen\"]}, \"complete\": true}"
+                )
+            )
+        ),
+        @ApiResponse(responseCode = "400", description = "Missing, negative or too many thresholds"),
+        @ApiResponse(responseCode = "503", description = "Upstream movie API unavailable and no cached catalog to answer from")
+    })
+    public Mono<ResponseEntity<DirectorsBatchResponse>> getDirectorsAboveThresholds(
+            @Parameter(description = "Comma-separated thresholds", example = "1,4,10")
+            @RequestParam(value = "thresholds", required = false) List<@Min(0) Integer> thresholds,
+            @Parameter(description = "First threshold of an inclusive range", example = "1")
+            @RequestParam(value = "from", required = false) @Min(0) Integer from,
+            @Parameter(description = "Last threshold of an inclusive range", example = "10")
+            @RequestParam(value = "to", required = false) @Min(0) Integer to) {
+
+        Set<Integer> requested = requestedThresholds(thresholds, from, to);
+        log.info("Received batch request for {} thresholds", requested.size());
+
+        return directorService.getDirectorsBatch(requested)
+                .map(result -> cacheable(result.getSnapshotVersion(), result.getFreshUntil(), result.isComplete(),
+                        "b" + DigestUtils.md5DigestAsHex(requested.toString().getBytes(StandardCharsets.US_ASCII)))
+                        .body(new DirectorsBatchResponse(result.getDirectorsByThreshold(), result.isComplete())))
+                .onErrorResume(error -> {
+                    log.error("Error processing batch directors request: {}", error.getMessage());
+                    HttpStatus status = error instanceof UpstreamUnavailableException
+                            ? HttpStatus.SERVICE_UNAVAILABLE
+                            : HttpStatus.INTERNAL_SERVER_ERROR;
+                    return Mono.just(ResponseEntity.status(status)
+                            .body(new DirectorsBatchResponse(Map.of(), null)));
+                });
+    }
+
+    @GetMapping("/directors/top")
+    @Operation(
+        summary = "Get the directors with the most movies",
+        description = "Returns the k directors with the most movies together with their movie counts, " +
+                     "most movies first and alphabetically among directors with the same count."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Top directors",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TopDirectorsResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"directors\": [{\"director\": \"Woody Allen\", \"movies\": 6}, " +
+                            "{\"director\": \"Martin Scorsese\", \"movies\": 5}], \"complete\": true}"
+                )
+            )
+        ),
+        @ApiResponse(responseCode = "400", description = "k outside 1.." + MAX_TOP_DIRECTORS),
+        @ApiResponse(responseCode = "503", description = "Upstream movie API unavailable and no cached catalog to answer from")
+    })
+    public Mono<ResponseEntity<TopDirectorsResponse>> getTopDirectors(
+            @Parameter(description = "Number of directors to return", example = "50")
+            @RequestParam(value = "k", defaultValue = "10") @Min(1) @Max(MAX_TOP_DIRECTORS) int k) {
+
+        log.info("Received request for top {} directors", k);
+
+        return directorService.getTopDirectors(k)
+                .map(result -> cacheable(result.getSnapshotVersion(), result.getFreshUntil(), result.isComplete(), "k" + k)
+                        .body(new TopDirectorsResponse(result.getDirectors(), result.isComplete())))
+                .onErrorResume(error -> {
+                    log.error("Error processing top directors request: {}", error.getMessage());
+                    HttpStatus status = error instanceof UpstreamUnavailableException
+                            ? HttpStatus.SERVICE_UNAVAILABLE
+                            : HttpStatus.INTERNAL_SERVER_ERROR;
+                    return Mono.just(ResponseEntity.status(status).body(new TopDirectorsResponse(List.of(), null)));
+                });
+    }
+
+    @GetMapping(value = "/directors/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream directors with movie count above threshold as Server-Sent Events",
+        description = "Same answer as /directors, one event per director. If the catalog is still being loaded, " +
+                     "'progress' and 'provisional' events are sent while pages arrive. The stream ends with a " +
+                     "'done' event, or an 'error' event when the catalog could not be loaded."
+    )
+    public Flux<ServerSentEvent<DirectorEvent>> streamDirectorsAboveThreshold(
+            @Parameter(description = "Minimum number of movies a director must have directed", example = "4", required = true)
+            @RequestParam("threshold") @Min(0) int threshold) {
+        return directorEvents(threshold)
+                .map(event -> ServerSentEvent.builder(event).event(event.getType().eventName()).build());
+    }
+
+    @GetMapping(value = "/directors/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Stream directors with movie count above threshold as newline-delimited JSON",
+        description = "The events of the Server-Sent Events variant, one JSON object per line with a 'type' field."
+    )
+    public Flux<DirectorEvent> streamDirectorsAboveThresholdAsNdjson(
+            @Parameter(description = "Minimum number of movies a director must have directed", example = "4", required = true)
+            @RequestParam("threshold") @Min(0) int threshold) {
+        return directorEvents(threshold);
+    }
+
+    // Checked before the body is looked up, so a matching client costs neither serialization nor compression.
+    // Either representation's ETag matches: a plain one is only handed out when there is no compressed copy
+    private static ResponseEntity<byte[]> notModified(DirectorsResult result, int threshold, ServerHttpRequest request) {
+        if (result.getFreshUntil() == null) {
+            return null;
+        }
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        String query = "t" + threshold;
+        String plain = etag(result.getSnapshotVersion(), result.getFreshUntil(), query);
+        String gzip = etag(result.getSnapshotVersion(), result.getFreshUntil(), query + "-gz");
+        String matched = matches(ifNoneMatch, plain) ? plain
+                : acceptsGzip(request) && matches(ifNoneMatch, gzip) ? gzip
+                : null;
+        if (matched == null) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(matched)
+                .cacheControl(cacheControl(result.getFreshUntil(), result.isComplete()))
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+    }
+
+    // Weak comparison, as for If-None-Match
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals(etag) || candidate.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The ETag names the snapshot and the question, so it changes exactly when the answer can
+    private static ResponseEntity.BodyBuilder cacheable(long snapshotVersion, Instant freshUntil, boolean complete,
+                                                        String query) {
+        if (freshUntil == null) {
+            return ResponseEntity.ok();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag(snapshotVersion, freshUntil, query))
+                .cacheControl(cacheControl(freshUntil, complete));
+    }
+
+    private static String etag(long snapshotVersion, Instant freshUntil, String query) {
+        return "\"" + snapshotVersion + "-" + Long.toString(freshUntil.toEpochMilli(), 36) + "-" + query + "\"";
+    }
+
+    // A partial answer may be completed by the next refresh at any moment, so clients revalidate every time
+    private static CacheControl cacheControl(Instant freshUntil, boolean complete) {
+        return complete
+                ? CacheControl.maxAge(maxAge(freshUntil)).cachePublic()
+                : CacheControl.noCache();
+    }
+
+    private static boolean acceptsGzip(ServerHttpRequest request) {
+        for (String coding : request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String token : coding.split(",")) {
+                String[] parts = token.split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    // "gzip;q=0" explicitly refuses it
+                    return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Duration maxAge(Instant freshUntil) {
+        Duration remaining = Duration.between(Instant.now(), freshUntil);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private static Set<Integer> requestedThresholds(List<Integer> thresholds, Integer from, Integer to) {
+        Set<Integer> requested = new TreeSet<>();
+        if (thresholds != null) {
+            requested.addAll(thresholds);
+        }
+        if (from != null || to != null) {
+            if (from == null || to == null || from > to) {
+                throw new InvalidThresholdsException("A threshold range needs both 'from' and 'to', with 'from' <= 'to'.");
+            }
+            if ((long) to - from + 1 > MAX_BATCH_THRESHOLDS) {
+                throw new InvalidThresholdsException("At most " + MAX_BATCH_THRESHOLDS + " thresholds per request.");
+            }
+            for (int threshold = from; threshold <= to; threshold++) {
+                requested.add(threshold);
+            }
+        }
+        if (requested.isEmpty()) {
+            throw new InvalidThresholdsException("Pass 'thresholds' or a 'from'/'to' range.");
+        }
+        if (requested.size() > MAX_BATCH_THRESHOLDS) {
+            throw new InvalidThresholdsException("At most " + MAX_BATCH_THRESHOLDS + " thresholds per request.");
+        }
+        return requested;
+    }
+
+    private Flux<DirectorEvent> directorEvents(int threshold) {
+        log.info("Received streaming request for directors with threshold: {}", threshold);
+        // The status line is already sent, so failures become the last event of the stream
+        return directorService.streamDirectors(threshold)
+                .onErrorResume(error -> {
+                    log.error("Error streaming directors: {}", error.getMessage());
+                    return Flux.just(DirectorEvent.error(error instanceof UpstreamUnavailableException
+                            ? "Upstream movie API unavailable"
+                            : "An error occurred while processing the request"));
                 });
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package domus.challenge.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import domus.challenge.config.ResponseCacheProperties;
+import domus.challenge.model.DirectorsResponse;
+import domus.challenge.service.DirectorsResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON bodies of /directors answers, serialized once per snapshot and threshold, with a gzip copy for
+ * clients that accept it. A newer snapshot drops every body of the older one; within a snapshot the
+ * least recently used bodies go first once the size bound is reached.
+ */
+@Component
+public class DirectorsResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectorsResponseCache.class);
+    private final ObjectMapper objectMapper;
+    private final long maxSize;
+    private final long compressAbove;
+    // Access order: iteration starts at the least recently used body
+    private final LinkedHashMap<Integer, Body> bodies = new LinkedHashMap<>(64, 0.75f, true);
+    private long snapshotVersion = -1;
+    private long size;
+
+    public DirectorsResponseCache(ObjectMapper objectMapper, ResponseCacheProperties properties) {
+        this.objectMapper = objectMapper;
+        this.maxSize = properties.getMaxSize().toBytes();
+        this.compressAbove = properties.getCompressAbove().toBytes();
+    }
+
+    public Body body(DirectorsResult result, int threshold) {
+        long version = result.getSnapshotVersion();
+        synchronized (this) {
+            if (version > snapshotVersion) {
+                bodies.clear();
+                size = 0;
+                snapshotVersion = version;
+            }
+            Body cached = version == snapshotVersion ? bodies.get(threshold) : null;
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Serialized outside the lock; two requests racing for the same body both build it, one is kept
+        Body body = toBody(new DirectorsResponse(result.getDirectors(), result.isComplete()));
+        synchronized (this) {
+            if (version == snapshotVersion && body.size() <= maxSize) {
+                Body previous = bodies.put(threshold, body);
+                size += body.size() - (previous == null ? 0 : previous.size());
+                evictOverflow();
+            }
+        }
+        return body;
+    }
+
+    // Uncached, for error answers
+    public Body emptyBody() {
+        return toBody(new DirectorsResponse(List.of()));
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Integer, Body>> eldest = bodies.entrySet().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            Map.Entry<Integer, Body> entry = eldest.next();
+            size -= entry.getValue().size();
+            eldest.remove();
+            log.debug("Evicted response body of threshold {}", entry.getKey());
+        }
+    }
+
+    private Body toBody(DirectorsResponse response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            return new Body(json, json.length >= compressAbove ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize directors response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    // Shared between requests: written out as is, never modified
+    public static class Body {
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Body(byte[] json, byte[] gzip) {
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        // Null when the body is too small to be worth compressing
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        long size() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package domus.challenge.controller;
+
+import domus.challenge.catalog.MovieField;
+import domus.challenge.catalog.MovieQuery;
+import domus.challenge.exception.InvalidQueryException;
+import domus.challenge.exception.UpstreamUnavailableException;
+import domus.challenge.model.MovieAggregationResponse;
+import domus.challenge.service.MovieQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import jakarta.validation.constraints.Min;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/movies")
+@Validated
+@ConditionalOnProperty(name = "catalog.movie-table.enabled", havingValue = "true")
+@Tag(name = "Movies", description = "Counts of movies grouped by any movie attribute")
+public class MovieAggregationController {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieAggregationController.class);
+    private final MovieQueryService movieQueryService;
+
+    public MovieAggregationController(MovieQueryService movieQueryService) {
+        this.movieQueryService = movieQueryService;
+    }
+
+    @GetMapping("/aggregate")
+    @Operation(
+        summary = "Count movies per value of one attribute",
+        description = "Groups the movies that pass every filter by director, genre, writer, actor, rated, year or " +
+                     "runtime and returns the groups with more movies than the threshold, in alphabetical or " +
+                     "numeric order. Genre, writer and actor list several values per movie; a movie counts once " +
+                     "towards each. A text filter accepts movies with any of the comma-separated values, ignoring " +
+                     "case; year and runtime ranges are inclusive."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Movie counts per group",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = MovieAggregationResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"groupBy\": \"director\", \"groups\": [{\"value\": \"Woody Allen\", \"movies\": 4}], " +
+                            "\"complete\": true}"
+                )
+            )
+        ),
+        @ApiResponse(responseCode = "400", description = "Unknown groupBy field, negative threshold or empty range"),
+        @ApiResponse(responseCode = "503", description = "Upstream movie API unavailable and no cached catalog to answer from")
+    })
+    public Mono<ResponseEntity<MovieAggregationResponse>> aggregate(
+            @Parameter(description = "Field to group by", example = "director")
+            @RequestParam("groupBy") String groupBy,
+            @Parameter(description = "Only movies by any of these directors")
+            @RequestParam(value = "director", required = false) List<String> directors,
+            @Parameter(description = "Only movies with any of these genres", example = "Drama")
+            @RequestParam(value = "genre", required = false) List<String> genres,
+            @Parameter(description = "Only movies by any of these writers")
+            @RequestParam(value = "writer", required = false) List<String> writers,
+            @Parameter(description = "Only movies with any of these actors")
+            @RequestParam(value = "actor", required = false) List<String> actors,
+            @Parameter(description = "Only movies with any of these ratings", example = "R")
+            @RequestParam(value = "rated", required = false) List<String> ratings,
+            @Parameter(description = "First release year, inclusive", example = "2001")
+            @RequestParam(value = "yearFrom", required = false) Integer yearFrom,
+            @Parameter(description = "Last release year, inclusive")
+            @RequestParam(value = "yearTo", required = false) Integer yearTo,
+            @Parameter(description = "Shortest runtime in minutes, inclusive")
+            @RequestParam(value = "runtimeFrom", required = false) Integer runtimeFrom,
+            @Parameter(description = "Longest runtime in minutes, inclusive")
+            @RequestParam(value = "runtimeTo", required = false) Integer runtimeTo,
+            @Parameter(description = "Groups must have more movies than this", example = "3")
+            @RequestParam(value = "threshold", defaultValue = "0") @Min(0) int threshold) {
+
+        MovieQuery query = new MovieQuery(field(groupBy)).above(threshold);
+        where(query, MovieField.DIRECTOR, directors);
+        where(query, MovieField.GENRE, genres);
+        where(query, MovieField.WRITER, writers);
+        where(query, MovieField.ACTOR, actors);
+        where(query, MovieField.RATED, ratings);
+        between(query, MovieField.YEAR, yearFrom, yearTo);
+        between(query, MovieField.RUNTIME, runtimeFrom, runtimeTo);
+        log.info("Received movie aggregation by {} with threshold {}", groupBy, threshold);
+
+        return movieQueryService.aggregate(query)
+                .map(ResponseEntity::ok)
+                .onErrorResume(error -> {
+                    log.error("Error processing movie aggregation: {}", error.getMessage());
+                    HttpStatus status = error instanceof UpstreamUnavailableException
+                            ? HttpStatus.SERVICE_UNAVAILABLE
+                            : HttpStatus.INTERNAL_SERVER_ERROR;
+                    return Mono.just(ResponseEntity.status(status)
+                            .body(new MovieAggregationResponse(groupBy, List.of(), null)));
+                });
+    }
+
+    private static MovieField field(String name) {
+        return MovieField.fromName(name).orElseThrow(() -> new InvalidQueryException(
+                "Invalid groupBy parameter. Expected one of: " + Arrays.stream(MovieField.values())
+                        .map(MovieField::parameterName)
+                        .collect(Collectors.joining(", "))));
+    }
+
+    private static void where(MovieQuery query, MovieField field, List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            query.where(field, values);
+        }
+    }
+
+    private static void between(MovieQuery query, MovieField field, Integer from, Integer to) {
+        if (from == null && to == null) {
+            return;
+        }
+        if (from != null && to != null && from > to) {
+            throw new InvalidQueryException("Invalid " + field.parameterName() + " range: " + from + " is after " + to);
+        }
+        query.between(field, from, to);
+    }
+}
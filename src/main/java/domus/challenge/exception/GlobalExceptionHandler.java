@@ -1,6 +1,8 @@
 package domus.challenge.exception;
 
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -35,7 +37,13 @@ public class GlobalExceptionHandler {
         log.warn("Constraint violation: {}", ex.getMessage());
         
         Map<String, String> errorResponse = new HashMap<>();
-        errorResponse.put("error", "Invalid threshold parameter. Threshold must be a non-negative number.");
+        ConstraintViolation<?> violation = ex.getConstraintViolations().iterator().next();
+        String parameter = parameterName(violation.getPropertyPath());
+        if (parameter.startsWith("threshold")) {
+            errorResponse.put("error", "Invalid threshold parameter. Threshold must be a non-negative number.");
+        } else {
+            errorResponse.put("error", "Invalid " + parameter + " parameter: " + violation.getMessage());
+        }
         
         return ResponseEntity.badRequest().body(errorResponse);
     }
@@ -45,7 +53,7 @@ public class GlobalExceptionHandler {
         log.warn("Missing request value: {}", ex.getMessage());
         
         Map<String, String> errorResponse = new HashMap<>();
-        errorResponse.put("error", "Required query parameter 'threshold' is not present.");
+        errorResponse.put("error", "Required query parameter '" + ex.getName() + "' is not present.");
         
         return ResponseEntity.badRequest().body(errorResponse);
     }
@@ -60,6 +68,26 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    @ExceptionHandler(InvalidThresholdsException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidThresholdsException(InvalidThresholdsException ex) {
+        log.warn("Invalid thresholds: {}", ex.getMessage());
+        
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", ex.getMessage());
+        
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
+    @ExceptionHandler(InvalidQueryException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidQueryException(InvalidQueryException ex) {
+        log.warn("Invalid query: {}", ex.getMessage());
+
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", ex.getMessage());
+
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
     @ExceptionHandler(NoResourceFoundException.class)
     public ResponseEntity<Map<String, String>> handleNoResourceFoundException(NoResourceFoundException ex) {
         // Don't log 404 errors for static resources like Swagger UI and favicon
@@ -85,4 +113,15 @@ public class GlobalExceptionHandler {
         
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
     }
-} 
\ No newline at end of file
+
+    // Last named node of a path like "getTopDirectors.k"
+    private static String parameterName(Path path) {
+        String name = "request";
+        for (Path.Node node : path) {
+            if (node.getName() != null) {
+                name = node.getName();
+            }
+        }
+        return name;
+    }
+}
@@ -0,0 +1,8 @@
+package domus.challenge.exception;
+
+public class InvalidQueryException extends RuntimeException {
+
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
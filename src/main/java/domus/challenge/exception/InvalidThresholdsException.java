@@ -0,0 +1,8 @@
+package domus.challenge.exception;
+
+public class InvalidThresholdsException extends RuntimeException {
+
+    public InvalidThresholdsException(String message) {
+        super(message);
+    }
+}
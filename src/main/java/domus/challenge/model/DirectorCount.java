@@ -0,0 +1,53 @@
+package domus.challenge.model;
+
+import java.util.Objects;
+
+public class DirectorCount {
+    private String director;
+    private int movies;
+
+    public DirectorCount() {
+    }
+
+    public DirectorCount(String director, int movies) {
+        this.director = director;
+        this.movies = movies;
+    }
+
+    public String getDirector() {
+        return director;
+    }
+
+    public void setDirector(String director) {
+        this.director = director;
+    }
+
+    public int getMovies() {
+        return movies;
+    }
+
+    public void setMovies(int movies) {
+        this.movies = movies;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DirectorCount that)) {
+            return false;
+        }
+        return movies == that.movies && Objects.equals(director, that.director);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(director, movies);
+    }
+
+    @Override
+    public String toString() {
+        return director + "=" + movies;
+    }
+}
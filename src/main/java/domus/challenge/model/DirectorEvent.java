@@ -0,0 +1,128 @@
+package domus.challenge.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One event of a streamed directors answer. While the catalog is still being crawled there are
+ * progress and provisional events; then every qualifying director in alphabetical order, then done.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DirectorEvent {
+
+    public enum Type {
+        @JsonProperty("progress") PROGRESS,
+        // Already above the threshold with the pages seen so far; counts only grow, so it stays in
+        @JsonProperty("provisional") PROVISIONAL,
+        @JsonProperty("director") DIRECTOR,
+        @JsonProperty("done") DONE,
+        @JsonProperty("error") ERROR;
+
+        public String eventName() {
+            return name().toLowerCase();
+        }
+    }
+
+    private Type type;
+    private String director;
+    private Integer pagesFetched;
+    private Integer totalPages;
+    private Integer directorCount;
+    private Boolean complete;
+    private String error;
+
+    public DirectorEvent() {
+    }
+
+    private DirectorEvent(Type type) {
+        this.type = type;
+    }
+
+    public static DirectorEvent progress(int pagesFetched, int totalPages) {
+        DirectorEvent event = new DirectorEvent(Type.PROGRESS);
+        event.pagesFetched = pagesFetched;
+        event.totalPages = totalPages;
+        return event;
+    }
+
+    public static DirectorEvent provisional(String director) {
+        DirectorEvent event = new DirectorEvent(Type.PROVISIONAL);
+        event.director = director;
+        return event;
+    }
+
+    public static DirectorEvent director(String director) {
+        DirectorEvent event = new DirectorEvent(Type.DIRECTOR);
+        event.director = director;
+        return event;
+    }
+
+    public static DirectorEvent done(int directorCount, boolean complete) {
+        DirectorEvent event = new DirectorEvent(Type.DONE);
+        event.directorCount = directorCount;
+        event.complete = complete;
+        return event;
+    }
+
+    public static DirectorEvent error(String error) {
+        DirectorEvent event = new DirectorEvent(Type.ERROR);
+        event.error = error;
+        return event;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getDirector() {
+        return director;
+    }
+
+    public void setDirector(String director) {
+        this.director = director;
+    }
+
+    public Integer getPagesFetched() {
+        return pagesFetched;
+    }
+
+    public void setPagesFetched(Integer pagesFetched) {
+        this.pagesFetched = pagesFetched;
+    }
+
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(Integer totalPages) {
+        this.totalPages = totalPages;
+    }
+
+    public Integer getDirectorCount() {
+        return directorCount;
+    }
+
+    public void setDirectorCount(Integer directorCount) {
+        this.directorCount = directorCount;
+    }
+
+    public Boolean getComplete() {
+        return complete;
+    }
+
+    public void setComplete(Boolean complete) {
+        this.complete = complete;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,37 @@
+package domus.challenge.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+public class DirectorsBatchResponse {
+    // Threshold to the directors with more movies than it, alphabetically
+    private Map<Integer, List<String>> directors;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean complete;
+
+    public DirectorsBatchResponse() {
+    }
+
+    public DirectorsBatchResponse(Map<Integer, List<String>> directors, Boolean complete) {
+        this.directors = directors;
+        this.complete = complete;
+    }
+
+    public Map<Integer, List<String>> getDirectors() {
+        return directors;
+    }
+
+    public void setDirectors(Map<Integer, List<String>> directors) {
+        this.directors = directors;
+    }
+
+    public Boolean getComplete() {
+        return complete;
+    }
+
+    public void setComplete(Boolean complete) {
+        this.complete = complete;
+    }
+}
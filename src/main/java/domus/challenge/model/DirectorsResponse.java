@@ -1,9 +1,13 @@
 package domus.challenge.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class DirectorsResponse {
     private List<String> directors;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean complete;
 
     public DirectorsResponse() {
     }
@@ -12,6 +16,11 @@ public class DirectorsResponse {
         this.directors = directors;
     }
 
+    public DirectorsResponse(List<String> directors, Boolean complete) {
+        this.directors = directors;
+        this.complete = complete;
+    }
+
     public List<String> getDirectors() {
         return directors;
     }
@@ -19,4 +28,12 @@ public class DirectorsResponse {
     public void setDirectors(List<String> directors) {
         this.directors = directors;
     }
-} 
\ No newline at end of file
+
+    public Boolean getComplete() {
+        return complete;
+    }
+
+    public void setComplete(Boolean complete) {
+        this.complete = complete;
+    }
+}
@@ -0,0 +1,53 @@
+package domus.challenge.model;
+
+import java.util.Objects;
+
+public class GroupCount {
+    private String value;
+    private int movies;
+
+    public GroupCount() {
+    }
+
+    public GroupCount(String value, int movies) {
+        this.value = value;
+        this.movies = movies;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public int getMovies() {
+        return movies;
+    }
+
+    public void setMovies(int movies) {
+        this.movies = movies;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GroupCount that)) {
+            return false;
+        }
+        return movies == that.movies && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(value, movies);
+    }
+
+    @Override
+    public String toString() {
+        return value + "=" + movies;
+    }
+}
@@ -1,5 +1,10 @@
 package domus.challenge.model;
 
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+// The upstream sends capitalized field names ("Title", "Director", ...)
+@JsonNaming(PropertyNamingStrategies.UpperCamelCaseStrategy.class)
 public class Movie {
     private String Title;
     private int Year;
@@ -0,0 +1,45 @@
+package domus.challenge.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public class MovieAggregationResponse {
+    private String groupBy;
+    private List<GroupCount> groups;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean complete;
+
+    public MovieAggregationResponse() {
+    }
+
+    public MovieAggregationResponse(String groupBy, List<GroupCount> groups, Boolean complete) {
+        this.groupBy = groupBy;
+        this.groups = groups;
+        this.complete = complete;
+    }
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(String groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public List<GroupCount> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(List<GroupCount> groups) {
+        this.groups = groups;
+    }
+
+    public Boolean getComplete() {
+        return complete;
+    }
+
+    public void setComplete(Boolean complete) {
+        this.complete = complete;
+    }
+}
@@ -0,0 +1,35 @@
+package domus.challenge.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public class TopDirectorsResponse {
+    private List<DirectorCount> directors;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean complete;
+
+    public TopDirectorsResponse() {
+    }
+
+    public TopDirectorsResponse(List<DirectorCount> directors, Boolean complete) {
+        this.directors = directors;
+        this.complete = complete;
+    }
+
+    public List<DirectorCount> getDirectors() {
+        return directors;
+    }
+
+    public void setDirectors(List<DirectorCount> directors) {
+        this.directors = directors;
+    }
+
+    public Boolean getComplete() {
+        return complete;
+    }
+
+    public void setComplete(Boolean complete) {
+        this.complete = complete;
+    }
+}
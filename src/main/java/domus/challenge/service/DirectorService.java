@@ -1,82 +1,153 @@
 package domus.challenge.service;
 
+import domus.challenge.catalog.CatalogCache;
+import domus.challenge.catalog.CatalogCrawl;
+import domus.challenge.catalog.CatalogSnapshot;
+import domus.challenge.catalog.DirectorAggregator;
+import domus.challenge.client.DirectorPage;
+import domus.challenge.model.DirectorEvent;
 import domus.challenge.model.Movie;
-import domus.challenge.model.MovieApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 @Service
 public class DirectorService {
 
     private static final Logger log = LoggerFactory.getLogger(DirectorService.class);
-    private final WebClient webClient;
-    private static final String EXTERNAL_API_BASE_URL = "https://challenge.iugolabs.com/api/movies/search";
+    private final CatalogCache catalogCache;
+    private final DirectorAggregator directorAggregator;
+    // Identical requests arriving while there is no snapshot yet wait on one answer
+    private final RequestCoalescer<String, Object> coalescer = new RequestCoalescer<>();
+    private final Counter coalescedRequests;
 
-    public DirectorService(WebClient webClient) {
-        this.webClient = webClient;
+    public DirectorService(CatalogCache catalogCache, DirectorAggregator directorAggregator) {
+        this(catalogCache, directorAggregator, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public DirectorService(CatalogCache catalogCache, DirectorAggregator directorAggregator,
+                           MeterRegistry meterRegistry) {
+        this.catalogCache = catalogCache;
+        this.directorAggregator = directorAggregator;
+        this.coalescedRequests = Counter.builder("directors.requests.coalesced")
+                .description("Requests answered by a computation another identical request started")
+                .register(meterRegistry);
     }
 
     public Mono<List<String>> getDirectorsAboveThreshold(int threshold) {
+        return getDirectors(threshold).map(DirectorsResult::getDirectors);
+    }
+
+    public Mono<DirectorsResult> getDirectors(int threshold) {
         if (threshold < 0) {
-            return Mono.just(List.of());
+            return Mono.just(new DirectorsResult(List.of(), true, 0, null));
         }
 
-        return getFirstPage()
-                .flatMapMany(firstPage -> {
-                    int totalPages = firstPage.getTotal_pages();
-                    log.info("Total pages to fetch: {}", totalPages);
-                    
-                    // Create a flux of all pages starting from page 1
-                    return Flux.range(1, totalPages)
-                            .flatMap(this::fetchMoviesPage, 5) // Process 5 pages concurrently
-                            .flatMapIterable(MovieApiResponse::getData);
-                })
-                .collectList()
-                .map(movies -> processDirectors(movies, threshold));
+        return coalesced("t" + threshold, () -> catalogCache.snapshot()
+                .map(snapshot -> {
+                    log.debug("Answering threshold {} from catalog snapshot {}", threshold, snapshot.getVersion());
+                    return new DirectorsResult(snapshot.getDirectorIndex().directorsAbove(threshold),
+                            snapshot.isComplete(), snapshot.getVersion(), catalogCache.freshUntil(snapshot));
+                }));
+    }
+
+    public Mono<DirectorsBatchResult> getDirectorsBatch(Collection<Integer> thresholds) {
+        return coalesced("b" + new TreeSet<>(thresholds), () -> catalogCache.snapshot()
+                .map(snapshot -> {
+                    log.debug("Answering {} thresholds from catalog snapshot {}", thresholds.size(), snapshot.getVersion());
+                    SortedMap<Integer, List<String>> answers = snapshot.getDirectorIndex().directorsAbove(thresholds);
+                    // Negative thresholds answer nothing, as in getDirectors
+                    answers.headMap(0).replaceAll((threshold, directors) -> List.of());
+                    return new DirectorsBatchResult(answers, snapshot.isComplete(), snapshot.getVersion(),
+                            catalogCache.freshUntil(snapshot));
+                }));
+    }
+
+    public Mono<TopDirectorsResult> getTopDirectors(int k) {
+        return coalesced("k" + k, () -> catalogCache.snapshot()
+                .map(snapshot -> new TopDirectorsResult(snapshot.getDirectorIndex().topDirectors(k),
+                        snapshot.isComplete(), snapshot.getVersion(), catalogCache.freshUntil(snapshot))));
     }
 
-    private Mono<MovieApiResponse> getFirstPage() {
-        return fetchMoviesPage(1);
+    public Flux<DirectorEvent> streamDirectors(int threshold) {
+        if (threshold < 0) {
+            return Flux.just(DirectorEvent.done(0, true));
+        }
+
+        return Flux.defer(() -> {
+            if (catalogCache.current() != null) {
+                return catalogCache.snapshot().flatMapMany(snapshot -> answer(snapshot, threshold));
+            }
+            // Nothing cached yet: report the crawl while it runs, then answer from the snapshot it produces
+            CatalogCrawl crawl = catalogCache.crawl();
+            Set<String> announced = new HashSet<>();
+            Flux<DirectorEvent> live = crawl.pages()
+                    .concatMapIterable(page -> crawlEvents(crawl, page, threshold, announced));
+            // Watch the pages before subscribing to the result, which is what starts the crawl
+            return Flux.merge(live, crawl.result().then(Mono.<DirectorEvent>empty()))
+                    .concatWith(crawl.result().flatMapMany(snapshot -> answer(snapshot, threshold)));
+        });
     }
 
-    private Mono<MovieApiResponse> fetchMoviesPage(int pageNumber) {
-        log.debug("Fetching page: {}", pageNumber);
-        return webClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/api/movies/search")
-                        .queryParam("page", pageNumber)
-                        .build())
-                .retrieve()
-                .bodyToMono(MovieApiResponse.class)
-                .doOnError(error -> log.error("Error fetching page {}: {}", pageNumber, error.getMessage()))
-                .onErrorResume(error -> {
-                    log.error("Failed to fetch page {}, returning empty response", pageNumber);
-                    return Mono.empty();
-                });
+    public Mono<List<String>> processDirectorsAsync(List<Movie> movies, int threshold) {
+        return directorAggregator.aggregate(movies).map(index -> index.directorsAbove(threshold));
     }
 
+    // Blocks until the aggregation threads are done. A non-blocking thread such as the event loop may not
+    // block, so there the list is counted on the calling thread; reactive callers use processDirectorsAsync
     public List<String> processDirectors(List<Movie> movies, int threshold) {
-        // Count movies per director
-        Map<String, Long> directorCounts = movies.stream()
-                .filter(movie -> movie.getDirector() != null && !movie.getDirector().trim().isEmpty())
-                .collect(Collectors.groupingBy(
-                        Movie::getDirector,
-                        Collectors.counting()
-                ));
-
-        // Filter directors with count > threshold and sort alphabetically
-        return directorCounts.entrySet().stream()
-                .filter(entry -> entry.getValue() > threshold)
-                .map(Map.Entry::getKey)
-                .sorted()
-                .collect(Collectors.toList());
+        // Directors with count > threshold, sorted alphabetically
+        if (Schedulers.isInNonBlockingThread()) {
+            return directorAggregator.aggregateOnCallingThread(movies).directorsAbove(threshold);
+        }
+        return processDirectorsAsync(movies, threshold).block();
+    }
+
+    // With a snapshot in place the answer is an index lookup and sharing it would cost more than it saves.
+    // On a miss every caller would otherwise wait for the crawl and then build its own answer from it
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> coalesced(String key, Supplier<Mono<T>> answer) {
+        if (catalogCache.current() != null) {
+            return answer.get();
+        }
+        return (Mono<T>) coalescer.coalesce(key, () -> answer.get().cast(Object.class), coalescedRequests::increment);
+    }
+
+    private Flux<DirectorEvent> answer(CatalogSnapshot snapshot, int threshold) {
+        // The index shares one list per count band, so streaming it copies nothing per request
+        List<String> directors = snapshot.getDirectorIndex().directorsAbove(threshold);
+        return Flux.fromIterable(directors)
+                .map(DirectorEvent::director)
+                .concatWithValues(DirectorEvent.done(directors.size(), snapshot.isComplete()));
+    }
+
+    private List<DirectorEvent> crawlEvents(CatalogCrawl crawl, DirectorPage page, int threshold,
+                                            Set<String> announced) {
+        List<DirectorEvent> events = new ArrayList<>();
+        for (String director : page.getDirectors()) {
+            String name = crawl.canonicalName(director);
+            if (name != null && crawl.count(name) > threshold && announced.add(name)) {
+                events.add(DirectorEvent.provisional(name));
+            }
+        }
+        events.add(DirectorEvent.progress(crawl.pagesFetched(), crawl.totalPages()));
+        return events;
     }
-} 
\ No newline at end of file
+}
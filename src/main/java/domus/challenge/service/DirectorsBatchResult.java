@@ -0,0 +1,37 @@
+package domus.challenge.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.SortedMap;
+
+public class DirectorsBatchResult {
+    private final SortedMap<Integer, List<String>> directorsByThreshold;
+    private final boolean complete;
+    private final long snapshotVersion;
+    private final Instant freshUntil;
+
+    public DirectorsBatchResult(SortedMap<Integer, List<String>> directorsByThreshold, boolean complete,
+                                long snapshotVersion, Instant freshUntil) {
+        this.directorsByThreshold = directorsByThreshold;
+        this.complete = complete;
+        this.snapshotVersion = snapshotVersion;
+        this.freshUntil = freshUntil;
+    }
+
+    public SortedMap<Integer, List<String>> getDirectorsByThreshold() {
+        return directorsByThreshold;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    // When the snapshot behind this result is due to be replaced; null if unknown
+    public Instant getFreshUntil() {
+        return freshUntil;
+    }
+}
@@ -0,0 +1,36 @@
+package domus.challenge.service;
+
+import java.time.Instant;
+import java.util.List;
+
+public class DirectorsResult {
+    private final List<String> directors;
+    private final boolean complete;
+    private final long snapshotVersion;
+    private final Instant freshUntil;
+
+    public DirectorsResult(List<String> directors, boolean complete, long snapshotVersion, Instant freshUntil) {
+        this.directors = directors;
+        this.complete = complete;
+        this.snapshotVersion = snapshotVersion;
+        this.freshUntil = freshUntil;
+    }
+
+    public List<String> getDirectors() {
+        return directors;
+    }
+
+    // False when the catalog snapshot behind this result is missing pages
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    // When the snapshot behind this result is due to be replaced; null if unknown
+    public Instant getFreshUntil() {
+        return freshUntil;
+    }
+}
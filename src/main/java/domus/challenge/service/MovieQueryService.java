@@ -0,0 +1,55 @@
+package domus.challenge.service;
+
+import domus.challenge.catalog.CatalogCache;
+import domus.challenge.catalog.CatalogSnapshot;
+import domus.challenge.catalog.MovieQuery;
+import domus.challenge.catalog.MovieTable;
+import domus.challenge.exception.UpstreamUnavailableException;
+import domus.challenge.model.MovieAggregationResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@ConditionalOnProperty(name = "catalog.movie-table.enabled", havingValue = "true")
+public class MovieQueryService {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieQueryService.class);
+    private final CatalogCache catalogCache;
+
+    public MovieQueryService(CatalogCache catalogCache) {
+        this.catalogCache = catalogCache;
+    }
+
+    public Mono<MovieAggregationResponse> aggregate(MovieQuery query) {
+        return catalogCache.snapshot()
+                .flatMap(snapshot -> {
+                    if (snapshot.getMovieTable() != null) {
+                        return Mono.just(snapshot);
+                    }
+                    // A snapshot from the store holds only director counts. The refresh leader crawls once to get
+                    // the movies; a follower would crawl after every snapshot the leader publishes, so it declines
+                    if (!catalogCache.isRefreshLeader()) {
+                        return Mono.error(new UpstreamUnavailableException(
+                                "Movie aggregations are only answered by the catalog refresh leader"));
+                    }
+                    return catalogCache.refresh();
+                })
+                .flatMap(snapshot -> {
+                    MovieTable table = snapshot.getMovieTable();
+                    if (table == null) {
+                        return Mono.error(new UpstreamUnavailableException("No movie table in the catalog snapshot"));
+                    }
+                    log.debug("Aggregating by {} over {} movies of snapshot {}",
+                            query.getGroupBy(), table.size(), snapshot.getVersion());
+                    return Mono.just(respond(query, snapshot, table));
+                });
+    }
+
+    private static MovieAggregationResponse respond(MovieQuery query, CatalogSnapshot snapshot, MovieTable table) {
+        return new MovieAggregationResponse(query.getGroupBy().parameterName(), table.aggregate(query),
+                snapshot.isComplete());
+    }
+}
@@ -0,0 +1,40 @@
+package domus.challenge.service;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Shares one in-flight computation among concurrent callers asking for the same key. The computation
+ * is forgotten once it terminates, so a caller arriving later starts a fresh one; nothing is cached
+ * beyond the lifetime of a single computation, errors included.
+ */
+public class RequestCoalescer<K, V> {
+
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    // onJoined runs for every caller that shares a computation someone else started
+    public Mono<V> coalesce(K key, Supplier<Mono<V>> computation, Runnable onJoined) {
+        return Mono.defer(() -> {
+            AtomicReference<Mono<V>> created = new AtomicReference<>();
+            Mono<V> shared = inFlight.computeIfAbsent(key, k -> {
+                Mono<V> mono = Mono.defer(computation)
+                        .doFinally(signal -> inFlight.remove(k, created.get()))
+                        .cache();
+                created.set(mono);
+                return mono;
+            });
+            if (shared != created.get()) {
+                onJoined.run();
+            }
+            return shared;
+        });
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
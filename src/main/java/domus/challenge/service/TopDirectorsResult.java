@@ -0,0 +1,38 @@
+package domus.challenge.service;
+
+import domus.challenge.model.DirectorCount;
+
+import java.time.Instant;
+import java.util.List;
+
+public class TopDirectorsResult {
+    private final List<DirectorCount> directors;
+    private final boolean complete;
+    private final long snapshotVersion;
+    private final Instant freshUntil;
+
+    public TopDirectorsResult(List<DirectorCount> directors, boolean complete, long snapshotVersion,
+                              Instant freshUntil) {
+        this.directors = directors;
+        this.complete = complete;
+        this.snapshotVersion = snapshotVersion;
+        this.freshUntil = freshUntil;
+    }
+
+    public List<DirectorCount> getDirectors() {
+        return directors;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    // When the snapshot behind this result is due to be replaced; null if unknown
+    public Instant getFreshUntil() {
+        return freshUntil;
+    }
+}
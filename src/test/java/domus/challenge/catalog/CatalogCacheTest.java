@@ -0,0 +1,348 @@
+package domus.challenge.catalog;
+
+import domus.challenge.client.DirectorPage;
+import domus.challenge.client.MovieCatalogClient;
+import domus.challenge.client.PageValidator;
+import domus.challenge.client.PageValidators;
+import domus.challenge.config.CatalogProperties;
+import domus.challenge.model.GroupCount;
+import domus.challenge.model.Movie;
+import domus.challenge.model.MovieApiResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogCacheTest {
+
+    @Mock
+    private MovieCatalogClient catalogClient;
+
+    private MutableClock clock;
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        CatalogProperties properties = new CatalogProperties();
+        properties.getRefresh().setStaleAfter(Duration.ofMinutes(5));
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        catalogCache = new CatalogCache(catalogClient, properties, new CatalogSnapshotFile(properties), clock);
+    }
+
+    @Test
+    void snapshot_WithConcurrentMisses_CrawlsOnce() {
+        // Given
+        Sinks.One<DirectorPage> crawl = Sinks.one();
+        when(catalogClient.fetchPages()).thenReturn(crawl.asMono().flux());
+
+        // When
+        Mono<CatalogSnapshot> first = catalogCache.snapshot();
+        Mono<CatalogSnapshot> second = catalogCache.snapshot();
+        crawl.tryEmitValue(createPage("Director A"));
+
+        // Then
+        StepVerifier.create(first)
+                .assertNext(snapshot -> assertEquals(1, snapshot.getMovieCount()))
+                .verifyComplete();
+        StepVerifier.create(second)
+                .assertNext(snapshot -> assertEquals(1, snapshot.getVersion()))
+                .verifyComplete();
+        verify(catalogClient, times(1)).fetchPages();
+    }
+
+    @Test
+    void snapshot_WhenStale_ServesOldSnapshotAndRevalidates() {
+        // Given
+        Sinks.One<DirectorPage> revalidation = Sinks.one();
+        when(catalogClient.fetchPages())
+                .thenReturn(Flux.just(createPage("Director A")))
+                .thenReturn(revalidation.asMono().flux());
+        catalogCache.refresh().block();
+        clock.advance(Duration.ofMinutes(10));
+
+        // When & Then
+        StepVerifier.create(catalogCache.snapshot())
+                .assertNext(snapshot -> assertEquals(1, snapshot.getVersion()))
+                .verifyComplete();
+        verify(catalogClient, times(2)).fetchPages();
+
+        revalidation.tryEmitValue(createPage("Director A", "Director B"));
+        assertEquals(2, catalogCache.current().getVersion());
+        assertEquals(2, catalogCache.current().getDirectorIndex().size());
+    }
+
+    @Test
+    void refresh_WhenCrawlFails_KeepsPreviousSnapshot() {
+        // Given
+        when(catalogClient.fetchPages())
+                .thenReturn(Flux.just(createPage("Director A")))
+                .thenReturn(Flux.error(new RuntimeException("Upstream down")));
+        catalogCache.refresh().block();
+
+        // When & Then
+        StepVerifier.create(catalogCache.refresh())
+                .verifyErrorMessage("Upstream down");
+        assertEquals(1, catalogCache.current().getVersion());
+    }
+
+    @Test
+    void refresh_FoldsEveryPageIntoDirectorIndex() {
+        // Given
+        when(catalogClient.fetchPages()).thenReturn(Flux.just(
+                createPage("Director A", "Director B"),
+                createPage("Director A", null),
+                createPage("Director A")));
+
+        // When & Then
+        StepVerifier.create(catalogCache.refresh())
+                .assertNext(snapshot -> {
+                    assertEquals(5, snapshot.getMovieCount());
+                    assertEquals(List.of("Director A"), snapshot.getDirectorIndex().directorsAbove(2));
+                    assertEquals(List.of("Director A", "Director B"), snapshot.getDirectorIndex().directorsAbove(0));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void refresh_WhenIncremental_RecountsOnlyChangedPagesAndDropsRemovedOnes() {
+        // Given
+        CatalogProperties properties = new CatalogProperties();
+        properties.getRefresh().setIncremental(true);
+        CatalogCache incremental = new CatalogCache(catalogClient, properties, new CatalogSnapshotFile(properties), clock);
+        PageValidator unchanged = new PageValidator("\"page-2\"", null, 3);
+        when(catalogClient.fetchPages(any(PageValidators.class)))
+                .thenReturn(Flux.just(
+                        new DirectorPage(1, 3, List.of("Director A", "Director B")),
+                        new DirectorPage(2, 3, List.of("Director A")).withValidators(unchanged.getEtag(), null),
+                        new DirectorPage(3, 3, List.of("Director C"))))
+                .thenReturn(Flux.just(
+                        new DirectorPage(1, 2, List.of("Director A", "Director D")),
+                        DirectorPage.notModified(unchanged, 2)));
+        incremental.refresh().block();
+
+        // When & Then
+        StepVerifier.create(incremental.refresh())
+                .assertNext(snapshot -> {
+                    assertEquals(3, snapshot.getMovieCount());
+                    assertEquals(List.of("Director A"), snapshot.getDirectorIndex().directorsAbove(1));
+                    assertEquals(List.of("Director A", "Director D"), snapshot.getDirectorIndex().directorsAbove(0));
+                })
+                .verifyComplete();
+        ArgumentCaptor<PageValidators> validators = ArgumentCaptor.forClass(PageValidators.class);
+        verify(catalogClient, times(2)).fetchPages(validators.capture());
+        assertEquals("\"page-2\"", validators.getValue().validatorFor(2).getEtag());
+        assertNull(validators.getValue().validatorFor(1));
+    }
+
+    @Test
+    void refresh_WithMovieTable_KeepsEveryMovieAndFetchesUnconditionally() {
+        // Given
+        CatalogProperties properties = new CatalogProperties();
+        properties.getRefresh().setIncremental(true);
+        properties.getMovieTable().setEnabled(true);
+        CatalogCache withTable = new CatalogCache(catalogClient, properties, new CatalogSnapshotFile(properties), clock);
+        when(catalogClient.fetchPages(PageValidators.NONE)).thenReturn(Flux.just(
+                createMoviePage(1, "Drama, Crime", "Director A"),
+                createMoviePage(2, "Drama", "Director B")));
+
+        // When & Then
+        StepVerifier.create(withTable.refresh())
+                .assertNext(snapshot -> {
+                    assertEquals(2, snapshot.getMovieTable().size());
+                    assertEquals(List.of(new GroupCount("Director A", 1)), snapshot.getMovieTable()
+                            .aggregate(new MovieQuery(MovieField.DIRECTOR).where(MovieField.GENRE, List.of("crime"))));
+                    assertEquals(List.of("Director A", "Director B"), snapshot.getDirectorIndex().directorsAbove(0));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void snapshot_RecordsCrawlTimeAndCacheLookups() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CatalogProperties properties = new CatalogProperties();
+        CatalogCache instrumented = new CatalogCache(catalogClient, properties, new CatalogSnapshotFile(properties),
+                meterRegistry, clock);
+        when(catalogClient.fetchPages()).thenReturn(Flux.just(createPage("Director A", "Director B")));
+
+        // When
+        instrumented.snapshot().block();
+        instrumented.snapshot().block();
+
+        // Then
+        assertEquals(1, meterRegistry.get("catalog.crawl").tag("outcome", "complete").timer().count());
+        assertEquals(1, meterRegistry.get("catalog.cache.lookups").tag("result", "miss").counter().count());
+        assertEquals(1, meterRegistry.get("catalog.cache.lookups").tag("result", "hit").counter().count());
+        assertEquals(2, meterRegistry.get("catalog.movies.processed").counter().count());
+        assertEquals(2, meterRegistry.get("catalog.snapshot.directors").gauge().value());
+    }
+
+    @Test
+    void start_WithPersistedSnapshot_ServesItBeforeTheFirstCrawl(@TempDir Path directory) {
+        // Given
+        CatalogProperties properties = new CatalogProperties();
+        properties.getRefresh().setEnabled(false);
+        properties.getPersistence().setEnabled(true);
+        properties.getPersistence().setPath(directory.resolve("catalog.snapshot"));
+        CatalogSnapshotFile snapshotFile = new CatalogSnapshotFile(properties);
+        snapshotFile.save(new CatalogSnapshot(41, Instant.now(), DirectorIndex.of(Map.of("Director A", 2)), 2));
+        CatalogCache restarted = new CatalogCache(catalogClient, properties, snapshotFile, Clock.systemUTC());
+
+        // When
+        restarted.start();
+
+        // Then
+        StepVerifier.create(restarted.snapshot())
+                .assertNext(snapshot -> {
+                    assertEquals(41, snapshot.getVersion());
+                    assertEquals(List.of("Director A"), snapshot.getDirectorIndex().directorsAbove(1));
+                })
+                .verifyComplete();
+        verifyNoInteractions(catalogClient);
+    }
+
+    @Test
+    void snapshot_InCluster_FollowerServesTheLeadersSnapshotWithoutCrawling(@TempDir Path directory) {
+        // Given
+        CatalogProperties properties = new CatalogProperties();
+        properties.getPersistence().setEnabled(true);
+        properties.getPersistence().setPath(directory.resolve("catalog.snapshot"));
+        properties.getCluster().setEnabled(true);
+        properties.getCluster().setLockPath(directory.resolve("catalog.lock"));
+        properties.getCluster().setPollInterval(Duration.ofMillis(50));
+        when(catalogClient.fetchPages()).thenReturn(Flux.just(createPage("Director A", "Director A")));
+        SimpleMeterRegistry leaderMeters = new SimpleMeterRegistry();
+        SimpleMeterRegistry followerMeters = new SimpleMeterRegistry();
+        CatalogCache leader = new CatalogCache(catalogClient, properties, new CatalogSnapshotFile(properties),
+                leaderMeters, Clock.systemUTC());
+        CatalogCache follower = new CatalogCache(catalogClient, properties, new CatalogSnapshotFile(properties),
+                followerMeters, Clock.systemUTC());
+
+        try {
+            // When
+            leader.start();
+            StepVerifier.create(leader.snapshot())
+                    .assertNext(snapshot -> assertEquals(1, snapshot.getVersion()))
+                    .verifyComplete();
+            follower.start();
+
+            // Then
+            StepVerifier.create(follower.snapshot())
+                    .assertNext(snapshot -> {
+                        assertEquals(1, snapshot.getVersion());
+                        assertEquals(List.of("Director A"), snapshot.getDirectorIndex().directorsAbove(1));
+                    })
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+            verify(catalogClient, times(1)).fetchPages();
+            assertEquals(1, leaderMeters.get("catalog.cluster.leader").gauge().value());
+            assertEquals(0, followerMeters.get("catalog.cluster.leader").gauge().value());
+        } finally {
+            leader.stop();
+            follower.stop();
+        }
+    }
+
+    @Test
+    void snapshot_InCluster_FollowerCrawlingAfterTheWaitDoesNotPublish(@TempDir Path directory) {
+        // Given
+        CatalogProperties properties = new CatalogProperties();
+        properties.getCluster().setEnabled(true);
+        properties.getCluster().setLockPath(directory.resolve("catalog.lock"));
+        properties.getCluster().setPollInterval(Duration.ofMillis(20));
+        properties.getCluster().setFollowerWait(Duration.ofMillis(100));
+        CatalogStore store = mock(CatalogStore.class);
+        when(store.load()).thenReturn(Optional.empty());
+        when(catalogClient.fetchPages()).thenReturn(Flux.just(createPage("Director A")));
+        RefreshLeadership leader = new LockFileLeadership(properties.getCluster().getLockPath());
+        assertTrue(leader.tryAcquire());
+        CatalogCache follower = new CatalogCache(catalogClient, properties, store, Clock.systemUTC());
+
+        try {
+            // When
+            follower.start();
+
+            // Then
+            StepVerifier.create(follower.snapshot())
+                    .assertNext(snapshot -> assertEquals(1, snapshot.getMovieCount()))
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+            assertFalse(follower.isRefreshLeader());
+            verify(store, after(200).never()).save(any());
+        } finally {
+            follower.stop();
+            leader.release();
+        }
+    }
+
+    private DirectorPage createMoviePage(int page, String genre, String director) {
+        Movie movie = new Movie();
+        movie.setGenre(genre);
+        movie.setDirector(director);
+        MovieApiResponse response = new MovieApiResponse();
+        response.setPage(page);
+        response.setTotal_pages(2);
+        response.setData(List.of(movie));
+        return DirectorPage.from(response);
+    }
+
+    private DirectorPage createPage(String... directors) {
+        return new DirectorPage(1, 1, Arrays.asList(directors));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
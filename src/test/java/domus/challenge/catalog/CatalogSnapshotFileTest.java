@@ -0,0 +1,97 @@
+package domus.challenge.catalog;
+
+import domus.challenge.config.CatalogProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotFileTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T12:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private CatalogProperties properties;
+    private CatalogSnapshotFile snapshotFile;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CatalogProperties();
+        properties.getPersistence().setEnabled(true);
+        properties.getPersistence().setPath(directory.resolve("catalog.snapshot"));
+        properties.getPersistence().setMaxAge(Duration.ofHours(1));
+        snapshotFile = new CatalogSnapshotFile(properties, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void load_AfterSave_RestoresSnapshot() {
+        // Given
+        snapshotFile.save(snapshot(NOW.minusSeconds(60)));
+
+        // When
+        Optional<CatalogSnapshot> loaded = snapshotFile.load();
+
+        // Then
+        assertTrue(loaded.isPresent());
+        assertEquals(7, loaded.get().getVersion());
+        assertEquals(NOW.minusSeconds(60), loaded.get().getFetchedAt());
+        assertEquals(9, loaded.get().getMovieCount());
+        assertEquals(List.of("Martin Scorsese", "Woody Allen"), loaded.get().getDirectorIndex().directorsAbove(2));
+        assertEquals(List.of("Woody Allen"), loaded.get().getDirectorIndex().directorsAbove(3));
+    }
+
+    @Test
+    void load_WithCorruptFile_RejectsSnapshot() throws IOException {
+        // Given
+        snapshotFile.save(snapshot(NOW));
+        try (RandomAccessFile file = new RandomAccessFile(properties.getPersistence().getPath().toFile(), "rw")) {
+            file.seek(30);
+            file.write(0x7F);
+        }
+
+        // When & Then
+        assertTrue(snapshotFile.load().isEmpty());
+    }
+
+    @Test
+    void load_WithExpiredSnapshot_RejectsSnapshot() {
+        // Given
+        snapshotFile.save(snapshot(NOW.minus(Duration.ofHours(2))));
+
+        // When & Then
+        assertTrue(Files.exists(properties.getPersistence().getPath()));
+        assertTrue(snapshotFile.load().isEmpty());
+    }
+
+    @Test
+    void save_WhenDisabled_WritesNothing() {
+        // Given
+        properties.getPersistence().setEnabled(false);
+
+        // When
+        snapshotFile.save(snapshot(NOW));
+
+        // Then
+        assertFalse(Files.exists(properties.getPersistence().getPath()));
+    }
+
+    private CatalogSnapshot snapshot(Instant fetchedAt) {
+        DirectorIndex index = DirectorIndex.of(Map.of("Woody Allen", 5, "Martin Scorsese", 3, "Jane Campion", 1));
+        return new CatalogSnapshot(7, fetchedAt, index, 9);
+    }
+}
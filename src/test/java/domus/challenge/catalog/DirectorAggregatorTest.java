@@ -0,0 +1,102 @@
+package domus.challenge.catalog;
+
+import domus.challenge.config.CatalogProperties;
+import domus.challenge.model.Movie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectorAggregatorTest {
+
+    private DirectorAggregator aggregator;
+
+    @AfterEach
+    void tearDown() {
+        aggregator.stop();
+    }
+
+    @Test
+    void aggregate_AboveParallelThreshold_MatchesSequentialCount() {
+        // Given
+        aggregator = createAggregator(1_000, 4);
+        List<Movie> movies = createMovies(100_003, 997);
+
+        // When
+        DirectorIndex index = aggregator.aggregate(movies).block();
+
+        // Then
+        DirectorIndex sequential = DirectorIndex.fromMovies(movies);
+        assertEquals(sequential.size(), index.size());
+        for (int threshold = 95; threshold <= 105; threshold++) {
+            assertEquals(sequential.directorsAbove(threshold), index.directorsAbove(threshold));
+        }
+    }
+
+    @Test
+    void aggregate_CountsPartitionsOnTheAggregationThreads() {
+        // Given
+        aggregator = createAggregator(10, 2);
+        List<String> threads = new ArrayList<>();
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            movies.add(new ThreadRecordingMovie(threads));
+        }
+
+        // When
+        aggregator.aggregate(movies).block();
+
+        // Then
+        assertEquals(20, threads.size());
+        assertTrue(threads.stream().allMatch(thread -> thread.startsWith("director-aggregation")), threads::toString);
+    }
+
+    @Test
+    void aggregate_BelowParallelThreshold_CountsOnTheCallingThread() {
+        // Given
+        aggregator = createAggregator(1_000, 4);
+        List<String> threads = new ArrayList<>();
+
+        // When
+        aggregator.aggregate(List.of(new ThreadRecordingMovie(threads))).block();
+
+        // Then
+        assertEquals(List.of(Thread.currentThread().getName()), threads);
+    }
+
+    private DirectorAggregator createAggregator(int parallelThreshold, int parallelism) {
+        CatalogProperties properties = new CatalogProperties();
+        properties.getAggregation().setParallelThreshold(parallelThreshold);
+        properties.getAggregation().setParallelism(parallelism);
+        return new DirectorAggregator(properties);
+    }
+
+    private List<Movie> createMovies(int count, int directors) {
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Movie movie = new Movie();
+            movie.setDirector(i % 50 == 0 ? null : "Director " + (i * 31) % directors);
+            movies.add(movie);
+        }
+        return movies;
+    }
+
+    private static class ThreadRecordingMovie extends Movie {
+        private final List<String> threads;
+
+        ThreadRecordingMovie(List<String> threads) {
+            this.threads = threads;
+        }
+
+        @Override
+        public String getDirector() {
+            synchronized (threads) {
+                threads.add(Thread.currentThread().getName());
+            }
+            return "Director";
+        }
+    }
+}
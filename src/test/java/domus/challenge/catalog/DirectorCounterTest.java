@@ -0,0 +1,77 @@
+package domus.challenge.catalog;
+
+import domus.challenge.client.DirectorPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectorCounterTest {
+
+    @Test
+    void add_WithWhitespaceAndUnicodeVariants_CountsOneDirector() {
+        // Given
+        DirectorCounter counter = new DirectorCounter();
+
+        // When
+        counter.addPage(new DirectorPage(1, 1, Arrays.asList(
+                "Pedro Almodóvar", " Pedro Almodo\u0301var", "Pedro Almodóvar\t", null, "  ")));
+
+        // Then
+        assertEquals(5, counter.movieCount());
+        assertEquals(3, counter.count("Pedro Almodóvar"));
+        assertEquals(List.of("Pedro Almodóvar"), counter.toIndex().directorsAbove(2));
+    }
+
+    @Test
+    void replace_SwapsThePreviousMoviesOfAPageForItsCurrentOnes() {
+        // Given
+        DirectorCounter counter = new DirectorCounter();
+        String[] counted = counter.replace(null, Arrays.asList("Director A", "Director B", null));
+
+        // When
+        String[] recounted = counter.replace(counted, List.of("Director A", "Director C"));
+
+        // Then
+        assertEquals(2, counter.movieCount());
+        assertEquals(List.of("Director A", "Director C"), counter.toIndex().directorsAbove(0));
+        assertTrue(counter.countsAsBefore(recounted, List.of("Director A", " Director C")));
+        assertFalse(counter.countsAsBefore(recounted, List.of("Director A", "Director B")));
+        counter.remove(recounted);
+        assertEquals(0, counter.toIndex().size());
+    }
+
+    @Test
+    void add_WithCaseFolding_ReportsFirstSpelling() {
+        // Given
+        DirectorCounter counter = new DirectorCounter(new DirectorNames(true));
+
+        // When
+        counter.addPage(new DirectorPage(1, 1, List.of("Woody Allen", "WOODY ALLEN", "woody allen", "Martin Scorsese")));
+
+        // Then
+        assertEquals(3, counter.count("Woody ALLEN"));
+        assertEquals(List.of("Woody Allen"), counter.toIndex().directorsAbove(1));
+        assertEquals(0, new DirectorCounter().count("WOODY ALLEN"));
+    }
+
+    @Test
+    void toIndex_WithManyDirectors_KeepsEveryCount() {
+        // Given
+        DirectorCounter counter = new DirectorCounter();
+
+        // When
+        for (int movie = 0; movie < 100_000; movie++) {
+            counter.add("Director " + movie % 5_000);
+        }
+
+        // Then
+        DirectorIndex index = counter.toIndex();
+        assertEquals(5_000, index.size());
+        assertEquals(5_000, index.directorsAbove(19).size());
+        assertEquals(List.of(), index.directorsAbove(20));
+        assertEquals(20, counter.count("Director 4999"));
+    }
+}
@@ -0,0 +1,74 @@
+package domus.challenge.catalog;
+
+import domus.challenge.model.DirectorCount;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectorIndexTest {
+
+    private final DirectorIndex index = DirectorIndex.of(Map.of(
+            "Woody Allen", 6,
+            "Martin Scorsese", 5,
+            "Alpha Director", 1,
+            "Clint Eastwood", 3,
+            "Ridley Scott", 3
+    ));
+
+    @Test
+    void directorsAbove_ReturnsAlphabeticalSliceForEveryThreshold() {
+        assertEquals(List.of("Alpha Director", "Clint Eastwood", "Martin Scorsese", "Ridley Scott", "Woody Allen"),
+                index.directorsAbove(0));
+        assertEquals(List.of("Clint Eastwood", "Martin Scorsese", "Ridley Scott", "Woody Allen"),
+                index.directorsAbove(1));
+        assertEquals(List.of("Clint Eastwood", "Martin Scorsese", "Ridley Scott", "Woody Allen"),
+                index.directorsAbove(2));
+        assertEquals(List.of("Martin Scorsese", "Woody Allen"), index.directorsAbove(4));
+        assertEquals(List.of("Woody Allen"), index.directorsAbove(5));
+        assertEquals(List.of(), index.directorsAbove(6));
+    }
+
+    @Test
+    void directorsAbove_WithSameBand_ReturnsSharedSlice() {
+        // Given
+        List<String> first = index.directorsAbove(4);
+
+        // When
+        List<String> second = index.directorsAbove(3);
+
+        // Then
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> first.add("Someone"));
+    }
+
+    @Test
+    void directorsAbove_WithSeveralThresholds_AnswersEachLikeASingleQuery() {
+        // When
+        SortedMap<Integer, List<String>> answers = index.directorsAbove(List.of(4, 0, 6, 2, 4));
+
+        // Then
+        assertEquals(List.of(0, 2, 4, 6), List.copyOf(answers.keySet()));
+        answers.forEach((threshold, directors) -> assertEquals(
+                DirectorIndex.of(Map.of("Woody Allen", 6, "Martin Scorsese", 5, "Alpha Director", 1,
+                        "Clint Eastwood", 3, "Ridley Scott", 3)).directorsAbove(threshold), directors));
+        assertSame(answers.get(2), index.directorsAbove(1));
+    }
+
+    @Test
+    void topDirectors_OrdersByCountThenAlphabetically() {
+        assertEquals(List.of(new DirectorCount("Woody Allen", 6), new DirectorCount("Martin Scorsese", 5),
+                new DirectorCount("Clint Eastwood", 3)), index.topDirectors(3));
+        assertEquals(5, index.topDirectors(50).size());
+        assertEquals(List.of(), DirectorIndex.empty().topDirectors(3));
+    }
+
+    @Test
+    void directorsAbove_WithEmptyIndex_ReturnsEmptyList() {
+        assertEquals(List.of(), DirectorIndex.of(Map.of()).directorsAbove(0));
+        assertEquals(0, DirectorIndex.empty().size());
+    }
+}
@@ -0,0 +1,85 @@
+package domus.challenge.catalog;
+
+import domus.challenge.model.GroupCount;
+import domus.challenge.model.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieTableTest {
+
+    private final MovieTable table = new MovieTable.Builder(DirectorNames.DEFAULT)
+            .add(movie("Woody Allen", 2005, "Drama, Romance", "Scarlett Johansson, Jonathan Rhys Meyers", "124 min"))
+            .add(movie("Woody Allen", 2008, "drama,Romance", "Scarlett Johansson, Javier Bardem", "96 min"))
+            .add(movie("Woody Allen", 1977, "Comedy, Romance", "Diane Keaton", "93 min"))
+            .add(movie("Martin Scorsese", 2006, "Crime, Drama, Thriller", "Leonardo DiCaprio", "151 min"))
+            .add(movie("Martin Scorsese", 1990, "Crime, Drama", "Robert De Niro", "N/A"))
+            .add(movie(" Woody Allen ", 2011, "Comedy, Fantasy", "Owen Wilson", "94 min"))
+            .add(movie(null, 0, null, null, null))
+            .build();
+
+    @Test
+    void aggregate_WithGenreAndYearFilters_CountsDirectorsAboveThreshold() {
+        // Given
+        MovieQuery query = new MovieQuery(MovieField.DIRECTOR)
+                .where(MovieField.GENRE, List.of("Drama"))
+                .between(MovieField.YEAR, 2001, null);
+
+        // When & Then
+        assertEquals(List.of(new GroupCount("Martin Scorsese", 1), new GroupCount("Woody Allen", 2)),
+                table.aggregate(query));
+        assertEquals(List.of(new GroupCount("Woody Allen", 2)), table.aggregate(query.above(1)));
+    }
+
+    @Test
+    void aggregate_ByMultiValuedField_CountsEveryMovieOncePerValue() {
+        // When
+        List<GroupCount> genres = table.aggregate(new MovieQuery(MovieField.GENRE));
+
+        // Then
+        assertEquals(List.of(
+                new GroupCount("Comedy", 2),
+                new GroupCount("Crime", 2),
+                new GroupCount("Drama", 4),
+                new GroupCount("Fantasy", 1),
+                new GroupCount("Romance", 3),
+                new GroupCount("Thriller", 1)), genres);
+        assertEquals(6, table.distinctValues(MovieField.GENRE));
+    }
+
+    @Test
+    void aggregate_ByNumericField_SkipsUnknownValuesAndOrdersNumerically() {
+        // Given
+        MovieQuery query = new MovieQuery(MovieField.RUNTIME)
+                .where(MovieField.ACTOR, List.of("scarlett johansson", "Robert De Niro", "Owen Wilson"));
+
+        // When & Then
+        assertEquals(List.of(new GroupCount("94", 1), new GroupCount("96", 1), new GroupCount("124", 1)),
+                table.aggregate(query));
+        assertEquals(List.of(new GroupCount("1977", 1), new GroupCount("1990", 1), new GroupCount("2005", 1),
+                        new GroupCount("2006", 1), new GroupCount("2008", 1), new GroupCount("2011", 1)),
+                table.aggregate(new MovieQuery(MovieField.YEAR)));
+    }
+
+    @Test
+    void aggregate_WithUnknownFilterValue_ReturnsNoGroups() {
+        // Given
+        MovieQuery query = new MovieQuery(MovieField.DIRECTOR).where(MovieField.GENRE, List.of("Western"));
+
+        // When & Then
+        assertEquals(List.of(), table.aggregate(query));
+        assertEquals(7, table.size());
+    }
+
+    private static Movie movie(String director, int year, String genre, String actors, String runtime) {
+        Movie movie = new Movie();
+        movie.setDirector(director);
+        movie.setYear(year);
+        movie.setGenre(genre);
+        movie.setActors(actors);
+        movie.setRuntime(runtime);
+        return movie;
+    }
+}
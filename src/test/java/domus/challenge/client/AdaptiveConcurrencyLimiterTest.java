@@ -0,0 +1,97 @@
+package domus.challenge.client;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void execute_NeverRunsMoreCallsThanTheLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 2, 2, Duration.ofSeconds(10), 0.5);
+        List<Sinks.One<Integer>> calls = new ArrayList<>();
+        AtomicInteger started = new AtomicInteger();
+
+        // When
+        Flux<Integer> results = Flux.range(1, 4)
+                .flatMap(i -> limiter.execute(() -> {
+                    started.incrementAndGet();
+                    Sinks.One<Integer> call = Sinks.one();
+                    calls.add(call);
+                    return call.asMono();
+                }), 4);
+
+        // Then
+        StepVerifier.create(results)
+                .then(() -> {
+                    assertEquals(2, started.get());
+                    calls.get(0).tryEmitValue(1);
+                    assertEquals(3, started.get());
+                    calls.get(1).tryEmitValue(2);
+                    calls.get(2).tryEmitValue(3);
+                    calls.get(3).tryEmitValue(4);
+                })
+                .expectNextCount(4)
+                .verifyComplete();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void execute_WithFastSuccesses_GrowsLimitUpToMax() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 4, 1, Duration.ofSeconds(10), 0.5);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            limiter.execute(() -> Mono.just("page")).block();
+        }
+
+        // Then
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void execute_WithErrorsOrSlowCalls_BacksOffDownToMin() {
+        // Given
+        AdaptiveConcurrencyLimiter failing = new AdaptiveConcurrencyLimiter(2, 32, 16, Duration.ofSeconds(10), 0.5);
+        AdaptiveConcurrencyLimiter slow = new AdaptiveConcurrencyLimiter(2, 32, 16, Duration.ZERO, 0.5);
+
+        // When
+        failing.execute(() -> Mono.error(new RuntimeException("boom"))).onErrorResume(e -> Mono.empty()).block();
+        slow.execute(() -> Mono.delay(Duration.ofMillis(5))).block();
+
+        // Then
+        assertEquals(8, failing.getLimit());
+        assertEquals(8, slow.getLimit());
+        for (int i = 0; i < 10; i++) {
+            failing.execute(() -> Mono.error(new RuntimeException("boom"))).onErrorResume(e -> Mono.empty()).block();
+        }
+        assertEquals(2, failing.getLimit());
+    }
+
+    @Test
+    void execute_WhenCancelledWhileWaiting_ReleasesItsSlot() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, Duration.ofSeconds(10), 0.5);
+        Sinks.One<Integer> blocker = Sinks.one();
+        limiter.execute(blocker::asMono).subscribe();
+
+        // When
+        limiter.execute(() -> Mono.just(2)).subscribe().dispose();
+        blocker.tryEmitValue(1);
+
+        // Then
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(3, limiter.execute(() -> Mono.just(3)).block());
+    }
+}
@@ -0,0 +1,97 @@
+package domus.challenge.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    void onFailure_AfterThreshold_OpensAndRefusesCalls() {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofSeconds(30), Clock.fixed(START, ZoneOffset.UTC));
+
+        // When
+        breaker.onFailure();
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_AfterOpenDuration_AllowsSingleTrialCall() {
+        // Given
+        CircuitBreaker breaker = reopenAt(START.plusSeconds(31));
+
+        // When & Then
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void onFailure_DuringTrial_OpensAgain() {
+        // Given
+        CircuitBreaker breaker = reopenAt(START.plusSeconds(31));
+        assertTrue(breaker.tryAcquire());
+
+        // When
+        breaker.onFailure();
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void onCancel_DuringTrial_FreesTheTrialSlot() {
+        // Given
+        CircuitBreaker breaker = reopenAt(START.plusSeconds(31));
+        assertTrue(breaker.tryAcquire());
+
+        // When
+        breaker.onCancel();
+
+        // Then
+        assertTrue(breaker.tryAcquire());
+    }
+
+    // A breaker that opened at START, observed from the given instant
+    private CircuitBreaker reopenAt(Instant now) {
+        Instant[] clockTime = {START};
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return clockTime[0];
+            }
+        };
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(30), clock);
+        breaker.onFailure();
+        clockTime[0] = now;
+        return breaker;
+    }
+}
@@ -0,0 +1,80 @@
+package domus.challenge.client;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import domus.challenge.model.MovieApiResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectorProjectionDecoderTest {
+
+    private static final String PAGE = """
+            {
+              "page": 2,
+              "per_page": 10,
+              "total": 26,
+              "total_pages": 3,
+              "data": [
+                {"Title": "Midnight in Paris", "Year": 2011, "Rated": "PG-13", "Released": "10 Jun 2011",
+                 "Runtime": "94 min", "Genre": "Comedy, Fantasy, Romance", "Director": "Woody Allen",
+                 "Writer": "Woody Allen", "Actors": "Owen Wilson, Rachel McAdams, Kathy Bates"},
+                {"Title": "Hugo", "Director": "Martin Scorsese", "Ratings": [{"Source": "x", "Value": "8/10"}]},
+                {"Title": "Unknown", "Director": null},
+                {"Title": "No director field"}
+              ]
+            }
+            """;
+
+    private final DirectorProjectionDecoder decoder = new DirectorProjectionDecoder();
+
+    @Test
+    void decode_ExtractsPagingAndDirectorsOnly() {
+        // When
+        DirectorPage page = decoder.decode(buffer(PAGE));
+
+        // Then
+        assertEquals(2, page.getPage());
+        assertEquals(3, page.getTotalPages());
+        assertEquals(Arrays.asList("Woody Allen", "Martin Scorsese", null, null), page.getDirectors());
+    }
+
+    @Test
+    void decode_MatchesPojoBinding() throws Exception {
+        // Given
+        MovieApiResponse pojo = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .readValue(PAGE, MovieApiResponse.class);
+
+        // When
+        DirectorPage projected = decoder.decode(buffer(PAGE));
+        DirectorPage bound = DirectorPage.from(pojo);
+
+        // Then
+        assertEquals(bound.getTotalPages(), projected.getTotalPages());
+        assertEquals(bound.getDirectors(), projected.getDirectors());
+    }
+
+    @Test
+    void decode_WithMissingData_ReturnsEmptyPage() {
+        DirectorPage page = decoder.decode(buffer("{\"page\": 1, \"total_pages\": 0, \"data\": null}"));
+
+        assertEquals(List.of(), page.getDirectors());
+    }
+
+    @Test
+    void decode_WithMalformedBody_ThrowsDecodingException() {
+        assertThrows(DecodingException.class, () -> decoder.decode(buffer("{\"page\": 1, \"data\": [")));
+    }
+
+    private DataBuffer buffer(String json) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,432 @@
+package domus.challenge.client;
+
+import domus.challenge.config.CatalogProperties;
+import domus.challenge.config.UpstreamProperties;
+import domus.challenge.config.WebClientConfig;
+import domus.challenge.exception.UpstreamUnavailableException;
+import domus.challenge.support.StubMovieApi;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieCatalogClientTest {
+
+    private final ConcurrentMap<Integer, AtomicInteger> requestsPerPage = new ConcurrentHashMap<>();
+    private volatile int upstreamTotalPages = 3;
+    // Overrides the upstream answer for a (page, attempt) pair; null means a normal page
+    private volatile BiFunction<Integer, Integer, Mono<ClientResponse>> faults = (page, attempt) -> null;
+    // Pages answered with 304 when the request carries their ETag
+    private volatile Set<Integer> unchangedPages = Set.of();
+
+    @Test
+    void fetchPages_ReusesFirstPageInsteadOfFetchingItTwice() {
+        // Given
+        MovieCatalogClient client = createClient(false);
+
+        // When & Then
+        StepVerifier.create(client.fetchPages().map(DirectorPage::getPage).collectList())
+                .assertNext(pages -> assertEquals(List.of(1, 2, 3), pages.stream().sorted().toList()))
+                .verifyComplete();
+        assertEquals(1, requestsPerPage.get(1).get());
+        assertEquals(3, requestsPerPage.size());
+    }
+
+    @Test
+    void fetchPages_WhenSpeculativeAndCatalogShrank_DiscardsPagesPastTheRealCount() {
+        // Given
+        MovieCatalogClient client = createClient(true);
+        upstreamTotalPages = 5;
+        client.fetchPages().blockLast();
+        upstreamTotalPages = 3;
+        requestsPerPage.clear();
+
+        // When & Then
+        StepVerifier.create(client.fetchPages().map(DirectorPage::getPage).collectList())
+                .assertNext(pages -> assertEquals(List.of(1, 2, 3), pages.stream().sorted().toList()))
+                .verifyComplete();
+        assertEquals(3, client.getLastKnownTotalPages());
+    }
+
+    @Test
+    void fetchPages_WhenSpeculativeAndCatalogGrew_FetchesTheMissingPages() {
+        // Given
+        MovieCatalogClient client = createClient(true);
+        client.fetchPages().blockLast();
+        upstreamTotalPages = 5;
+        requestsPerPage.clear();
+
+        // When & Then
+        StepVerifier.create(client.fetchPages().map(DirectorPage::getPage).collectList())
+                .assertNext(pages -> assertEquals(List.of(1, 2, 3, 4, 5), pages.stream().sorted().toList()))
+                .verifyComplete();
+        requestsPerPage.values().forEach(count -> assertEquals(1, count.get()));
+    }
+
+    @Test
+    void fetchPages_WithTransientPageError_RetriesThePage() {
+        // Given
+        faults = (page, attempt) -> page == 2 && attempt == 1 ? error(HttpStatus.BAD_GATEWAY) : null;
+        MovieCatalogClient client = createClient(false);
+
+        // When & Then
+        StepVerifier.create(client.fetchPages().filter(page -> !page.isFailed()).count())
+                .expectNext(3L)
+                .verifyComplete();
+        assertEquals(2, requestsPerPage.get(2).get());
+    }
+
+    @Test
+    void fetchPages_WithPersistentPageError_EmitsFailedPageInsteadOfDroppingIt() {
+        // Given
+        faults = (page, attempt) -> page == 3 ? error(HttpStatus.INTERNAL_SERVER_ERROR) : null;
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MovieCatalogClient client = createClient(false, meterRegistry);
+
+        // When & Then
+        StepVerifier.create(client.fetchPages().filter(DirectorPage::isFailed).map(DirectorPage::getPage))
+                .expectNext(3)
+                .verifyComplete();
+        assertEquals(3, requestsPerPage.get(3).get());
+        assertEquals(2, meterRegistry.get("catalog.page.retries").counter().count());
+        assertEquals(1, meterRegistry.get("catalog.page.abandoned").counter().count());
+    }
+
+    @Test
+    void fetchPages_WithHungTailPage_HedgesIt() {
+        // Given
+        faults = (page, attempt) -> page == 3 && attempt == 1 ? Mono.never() : null;
+        MovieCatalogClient client = createClient(false);
+
+        // When & Then
+        StepVerifier.create(client.fetchPages().filter(page -> !page.isFailed()).count())
+                .expectNext(3L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertEquals(2, requestsPerPage.get(3).get());
+    }
+
+    @Test
+    void fetchPages_WithTailPageFailingFast_ReportsItWithoutHedging() throws InterruptedException {
+        // Given
+        faults = (page, attempt) -> page == 3 ? error(HttpStatus.BAD_REQUEST) : null;
+        MovieCatalogClient client = createClient(false);
+
+        // When & Then
+        StepVerifier.create(client.fetchPages().filter(DirectorPage::isFailed).map(DirectorPage::getPage))
+                .expectNext(3)
+                .verifyComplete();
+        // Well past the hedge delay, no second request went out
+        Thread.sleep(200);
+        assertEquals(1, requestsPerPage.get(3).get());
+    }
+
+    @Test
+    void fetchPages_WithBodyForAnotherPage_NumbersItAsRequested() {
+        // Given
+        faults = (page, attempt) -> page == 2 ? Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(pageJson(3))
+                .build()) : null;
+        MovieCatalogClient client = createClient(false);
+
+        // When & Then
+        StepVerifier.create(client.fetchPages().map(DirectorPage::getPage).sort())
+                .expectNext(1, 2, 3)
+                .verifyComplete();
+    }
+
+    @Test
+    void fetchPages_WhenCircuitOpen_FailsFastWithoutCallingUpstream() {
+        // Given
+        faults = (page, attempt) -> error(HttpStatus.SERVICE_UNAVAILABLE);
+        MovieCatalogClient client = createClient(false);
+        StepVerifier.create(client.fetchPages()).expectError().verify();
+        requestsPerPage.clear();
+
+        // When & Then
+        StepVerifier.create(client.fetchPages())
+                .expectError(UpstreamUnavailableException.class)
+                .verify();
+        assertTrue(requestsPerPage.isEmpty());
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void fetchPages_WithValidators_SendsThemAndReportsUnchangedPagesAsNotModified() {
+        // Given
+        MovieCatalogClient client = createClient(false);
+        Map<Integer, DirectorPage> previous = client.fetchPages()
+                .collectMap(DirectorPage::getPage)
+                .block();
+        unchangedPages = Set.of(1, 3);
+
+        // When
+        List<DirectorPage> pages = client.fetchPages(page -> {
+                    DirectorPage stored = previous.get(page);
+                    return new PageValidator(stored.getEtag(), stored.getLastModified(), stored.getTotalPages());
+                })
+                .sort(Comparator.comparingInt(DirectorPage::getPage))
+                .collectList()
+                .block();
+
+        // Then
+        assertEquals("\"page-2\"", previous.get(2).getEtag());
+        assertEquals(List.of(true, false, true), pages.stream().map(DirectorPage::isNotModified).toList());
+        assertEquals(3, pages.get(0).getTotalPages());
+        assertEquals(List.of("Director"), pages.get(1).getDirectors());
+    }
+
+    @ParameterizedTest
+    @EnumSource(DecodeMode.class)
+    void fetchPages_OverHttp_DecodesEveryDirectorOfTheCatalog(DecodeMode decodeMode) {
+        // Given
+        try (StubMovieApi upstream = new StubMovieApi(4, 25, 7).start()) {
+            UpstreamProperties upstreamProperties = new UpstreamProperties();
+            upstreamProperties.setBaseUrl(upstream.baseUrl());
+            upstreamProperties.getPool().setMetrics(false);
+            WebClientConfig webClientConfig = new WebClientConfig();
+            ConnectionProvider connectionProvider = webClientConfig.upstreamConnectionProvider(upstreamProperties);
+            CatalogProperties properties = new CatalogProperties();
+            properties.getCrawl().setDecodeMode(decodeMode);
+            MovieCatalogClient client = new MovieCatalogClient(
+                    webClientConfig.webClient(upstreamProperties, connectionProvider), properties);
+
+            // When
+            List<String> directors = client.fetchPages()
+                    .flatMapIterable(DirectorPage::getDirectors)
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            connectionProvider.dispose();
+
+            // Then
+            assertEquals(upstream.totalMovies(), directors.size());
+            assertEquals(LongStream.range(0, upstream.totalMovies()).mapToObj(upstream::directorOf).sorted().toList(),
+                    directors.stream().sorted().toList());
+            assertEquals(4, upstream.requestCount());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(DecodeMode.class)
+    void fetchPages_OnVirtualThreads_DecodesEveryDirectorOfTheCatalog(DecodeMode decodeMode) {
+        // Given
+        try (StubMovieApi upstream = new StubMovieApi(6, 25, 7).start()) {
+            CatalogProperties properties = new CatalogProperties();
+            properties.getCrawl().setDecodeMode(decodeMode);
+            MovieCatalogClient client = createVirtualThreadClient(upstream, properties);
+
+            // When
+            List<String> directors = client.fetchPages()
+                    .flatMapIterable(DirectorPage::getDirectors)
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+
+            // Then
+            assertEquals(LongStream.range(0, upstream.totalMovies()).mapToObj(upstream::directorOf).sorted().toList(),
+                    directors.stream().sorted().toList());
+            assertEquals(6, upstream.requestCount());
+            assertEquals(6, client.getLastKnownTotalPages());
+        }
+    }
+
+    @Test
+    void fetchPages_OnVirtualThreadsWithFailingUpstream_RetriesThenFailsTheCrawl() {
+        // Given
+        try (StubMovieApi upstream = new StubMovieApi(3, 10, 5).start()) {
+            upstream.setErrorRate(1.0);
+            CatalogProperties properties = new CatalogProperties();
+            properties.getCrawl().getResilience().setMaxRetries(2);
+            properties.getCrawl().getResilience().setRetryBackoff(Duration.ofMillis(1));
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            UpstreamProperties upstreamProperties = new UpstreamProperties();
+            upstreamProperties.setBaseUrl(upstream.baseUrl());
+            properties.getCrawl().setExecution(ExecutionMode.VIRTUAL_THREADS);
+            MovieCatalogClient client = new MovieCatalogClient(WebClient.create(), properties, upstreamProperties,
+                    meterRegistry, ObservationRegistry.NOOP);
+
+            // When & Then
+            StepVerifier.create(client.fetchPages())
+                    .expectErrorSatisfies(error -> assertTrue(error.getMessage().startsWith("503")))
+                    .verify(Duration.ofSeconds(10));
+            assertEquals(3, upstream.requestCount());
+            assertEquals(2, meterRegistry.get("catalog.page.retries").counter().count());
+        }
+    }
+
+    @Test
+    void fetchPages_OnVirtualThreadsWithStalledBody_TimesOutThePage() {
+        // Given
+        try (StubMovieApi upstream = new StubMovieApi(3, 10, 5).start()) {
+            upstream.setStalledPage(2);
+            CatalogProperties properties = new CatalogProperties();
+            properties.getCrawl().getResilience().setPageTimeout(Duration.ofMillis(300));
+            properties.getCrawl().getResilience().setMaxRetries(0);
+            properties.getCrawl().getResilience().setHedge(false);
+            MovieCatalogClient client = createVirtualThreadClient(upstream, properties);
+
+            // When
+            List<DirectorPage> pages = client.fetchPages()
+                    .sort(Comparator.comparingInt(DirectorPage::getPage))
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+
+            // Then
+            assertEquals(List.of(false, true, false), pages.stream().map(DirectorPage::isFailed).toList());
+        }
+    }
+
+    @Test
+    void fetchPages_OnVirtualThreadsWithBodyOverMaxInMemorySize_FailsTheCrawl() {
+        // Given
+        try (StubMovieApi upstream = new StubMovieApi(3, 10, 5).start()) {
+            CatalogProperties properties = new CatalogProperties();
+            properties.getCrawl().getResilience().setMaxRetries(0);
+            properties.getCrawl().setExecution(ExecutionMode.VIRTUAL_THREADS);
+            UpstreamProperties upstreamProperties = new UpstreamProperties();
+            upstreamProperties.setBaseUrl(upstream.baseUrl());
+            upstreamProperties.setMaxInMemorySize(DataSize.ofBytes(100));
+            MovieCatalogClient client = new MovieCatalogClient(WebClient.create(), properties, upstreamProperties,
+                    new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+
+            // When & Then
+            StepVerifier.create(client.fetchPages())
+                    .expectErrorSatisfies(error -> assertInstanceOf(DataBufferLimitException.class, error))
+                    .verify(Duration.ofSeconds(10));
+            client.stop();
+        }
+    }
+
+    @Test
+    void fetchPages_OnVirtualThreadsWithUnsolicitedNotModified_FailsThePageWithoutRetrying() {
+        // Given
+        try (StubMovieApi upstream = new StubMovieApi(3, 10, 5).start()) {
+            upstream.setNotModifiedPage(3);
+            CatalogProperties properties = new CatalogProperties();
+            properties.getCrawl().getResilience().setRetryBackoff(Duration.ofMillis(1));
+            MovieCatalogClient client = createVirtualThreadClient(upstream, properties);
+
+            // When
+            List<DirectorPage> pages = client.fetchPages()
+                    .sort(Comparator.comparingInt(DirectorPage::getPage))
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+
+            // Then
+            assertEquals(List.of(false, false, true), pages.stream().map(DirectorPage::isFailed).toList());
+            assertEquals(3, upstream.requestCount());
+        }
+    }
+
+    @Test
+    void fetchPages_OnVirtualThreadsWhenCancelledWithPagesQueued_DoesNotCountThemAsFailures() throws InterruptedException {
+        // Given
+        try (StubMovieApi upstream = new StubMovieApi(12, 10, 5).start()) {
+            upstream.setLatency(Duration.ofMillis(300));
+            CatalogProperties properties = new CatalogProperties();
+            properties.getCrawl().getConcurrency().setMin(1);
+            properties.getCrawl().getConcurrency().setInitial(1);
+            properties.getCrawl().getConcurrency().setMax(1);
+            properties.getCrawl().getResilience().setHedge(false);
+            properties.getCrawl().setExecution(ExecutionMode.VIRTUAL_THREADS);
+            UpstreamProperties upstreamProperties = new UpstreamProperties();
+            upstreamProperties.setBaseUrl(upstream.baseUrl());
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            MovieCatalogClient client = new MovieCatalogClient(WebClient.create(), properties, upstreamProperties,
+                    meterRegistry, ObservationRegistry.NOOP);
+
+            // When
+            Disposable crawl = client.fetchPages().subscribe();
+            // Page 2 holds the only slot, pages 3..12 wait for it
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (upstream.requestCount() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            crawl.dispose();
+            Thread.sleep(500);
+
+            // Then
+            assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+            assertEquals(0, meterRegistry.get("catalog.page.abandoned").counter().count());
+            assertEquals(2, upstream.requestCount());
+        }
+    }
+
+    private MovieCatalogClient createVirtualThreadClient(StubMovieApi upstream, CatalogProperties properties) {
+        UpstreamProperties upstreamProperties = new UpstreamProperties();
+        upstreamProperties.setBaseUrl(upstream.baseUrl());
+        properties.getCrawl().setExecution(ExecutionMode.VIRTUAL_THREADS);
+        return new MovieCatalogClient(WebClient.create(), properties, upstreamProperties, new SimpleMeterRegistry(),
+                ObservationRegistry.NOOP);
+    }
+
+    private Mono<ClientResponse> error(HttpStatus status) {
+        return Mono.just(ClientResponse.create(status).build());
+    }
+
+    private MovieCatalogClient createClient(boolean speculative) {
+        return createClient(speculative, new SimpleMeterRegistry());
+    }
+
+    private MovieCatalogClient createClient(boolean speculative, MeterRegistry meterRegistry) {
+        CatalogProperties properties = new CatalogProperties();
+        properties.getCrawl().setSpeculative(speculative);
+        CatalogProperties.Resilience resilience = properties.getCrawl().getResilience();
+        resilience.setRetryBackoff(Duration.ofMillis(1));
+        resilience.setHedgeDelay(Duration.ofMillis(50));
+        resilience.setPageTimeout(Duration.ofSeconds(2));
+        resilience.setCircuitFailureThreshold(3);
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    String query = request.url().getQuery();
+                    int page = Integer.parseInt(query.substring(query.indexOf('=') + 1));
+                    int attempt = requestsPerPage.computeIfAbsent(page, key -> new AtomicInteger()).incrementAndGet();
+                    Mono<ClientResponse> fault = faults.apply(page, attempt);
+                    if (fault != null) {
+                        return fault;
+                    }
+                    String etag = "\"page-" + page + "\"";
+                    if (unchangedPages.contains(page) && request.headers().getIfNoneMatch().contains(etag)) {
+                        return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+                    }
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .header(HttpHeaders.ETAG, etag)
+                            .body(pageJson(page))
+                            .build());
+                })
+                .build();
+        return new MovieCatalogClient(webClient, properties, meterRegistry, ObservationRegistry.NOOP);
+    }
+
+    private String pageJson(int page) {
+        String data = page <= upstreamTotalPages ? "[{\"Title\": \"Movie " + page + "\", \"Director\": \"Director\"}]" : "[]";
+        return "{\"page\": " + page + ", \"total_pages\": " + upstreamTotalPages + ", \"data\": " + data + "}";
+    }
+}
@@ -0,0 +1,154 @@
+package domus.challenge.controller;
+
+import domus.challenge.config.AdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Sinks.Empty<Void> firstRequest = Sinks.empty();
+    private final AtomicInteger handled = new AtomicInteger();
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxConcurrent(1);
+        properties.setMaxQueued(1);
+        properties.setQueueTimeout(Duration.ofSeconds(5));
+        properties.setRetryAfter(Duration.ofMillis(1500));
+        filter = new AdmissionControlFilter(properties, meterRegistry);
+    }
+
+    @Test
+    void filter_WhenSaturated_QueuesThenShedsWithRetryAfter() {
+        // Given
+        MockServerWebExchange shed = exchange("/api/directors/top");
+        CompletableFuture<Void> first = filter.filter(exchange("/api/directors?threshold=1"), chain()).toFuture();
+        CompletableFuture<Void> queued = filter.filter(exchange("/api/directors?threshold=2"), chain()).toFuture();
+
+        // When
+        filter.filter(shed, chain()).block();
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getResponse().getStatusCode());
+        assertEquals("2", shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, meterRegistry.get("http.admission.rejected").tag("reason", "queue-full").counter().count());
+        assertEquals(1, filter.getInFlight());
+        assertEquals(1, filter.getQueued());
+        assertFalse(queued.isDone());
+
+        firstRequest.tryEmitEmpty();
+        queued.join();
+        assertTrue(first.isDone());
+        assertEquals(2, handled.get());
+        assertEquals(0, filter.getInFlight());
+    }
+
+    @Test
+    void filter_WhenQueuedTooLong_ShedsTheRequest() {
+        // Given
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxConcurrent(1);
+        properties.setQueueTimeout(Duration.ofMillis(50));
+        AdmissionControlFilter impatient = new AdmissionControlFilter(properties, meterRegistry);
+        impatient.filter(exchange("/api/directors?threshold=1"), chain()).subscribe();
+        MockServerWebExchange timedOut = exchange("/api/directors?threshold=2");
+
+        // When
+        impatient.filter(timedOut, chain()).block(Duration.ofSeconds(1));
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, timedOut.getResponse().getStatusCode());
+        assertEquals(0, impatient.getQueued());
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void filter_WhenCancelledAsItIsAdmitted_ReleasesTheSlot() {
+        // Given
+        BaseSubscriber<Void> cancelledOnSubscribe = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                cancel();
+            }
+        };
+
+        // When
+        filter.filter(exchange("/api/directors?threshold=1"), chain()).subscribe(cancelledOnSubscribe);
+
+        // Then
+        assertEquals(0, handled.get());
+        assertEquals(0, filter.getInFlight());
+        assertEquals(0, filter.getQueued());
+    }
+
+    @Test
+    void filter_WhenCancelledConcurrentlyWithAdmission_ReleasesEverySlot() throws Exception {
+        // Given
+        WebFilterChain hanging = exchange -> Mono.never();
+
+        // When
+        for (int i = 0; i < 500; i++) {
+            Disposable request = filter.filter(exchange("/api/directors?threshold=1"), hanging)
+                    .subscribeOn(Schedulers.parallel())
+                    .subscribe();
+            CompletableFuture.runAsync(request::dispose).get(1, TimeUnit.SECONDS);
+        }
+
+        // Then
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while ((filter.getInFlight() > 0 || filter.getQueued() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, filter.getInFlight());
+        assertEquals(0, filter.getQueued());
+    }
+
+    @Test
+    void filter_IgnoresHealthAndStreamRequests() {
+        // Given
+        filter.filter(exchange("/api/directors?threshold=1"), chain()).subscribe();
+
+        // When
+        filter.filter(exchange("/api/health"), chain()).block();
+        filter.filter(exchange("/api/directors/stream?threshold=1"), chain()).block();
+
+        // Then
+        assertEquals(3, handled.get());
+        assertEquals(1, filter.getInFlight());
+        assertEquals(0, filter.getQueued());
+    }
+
+    // The first request handled hangs until firstRequest completes, the others finish right away
+    private WebFilterChain chain() {
+        return exchange -> {
+            handled.incrementAndGet();
+            return handled.get() == 1 ? firstRequest.asMono() : Mono.empty();
+        };
+    }
+
+    private static MockServerWebExchange exchange(String uri) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(uri));
+    }
+}
@@ -4,16 +4,43 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import domus.challenge.config.ResponseCacheConfig;
+import domus.challenge.exception.UpstreamUnavailableException;
+import domus.challenge.model.DirectorCount;
+import domus.challenge.model.DirectorEvent;
 import domus.challenge.service.DirectorService;
+import domus.challenge.service.DirectorsBatchResult;
+import domus.challenge.service.DirectorsResult;
+import domus.challenge.service.TopDirectorsResult;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(DirectorController.class)
+@Import({DirectorsResponseCache.class, ResponseCacheConfig.class})
 class DirectorControllerIntegrationTest {
 
     @Autowired
@@ -22,12 +49,15 @@ class DirectorControllerIntegrationTest {
     @MockBean
     private DirectorService directorService;
 
+    @Autowired
+    private DirectorsResponseCache responseCache;
+
     @Test
     void getDirectorsAboveThreshold_WithValidThreshold_ReturnsDirectors() {
         // Given
         List<String> expectedDirectors = List.of("Martin Scorsese", "Woody Allen");
-        when(directorService.getDirectorsAboveThreshold(4))
-                .thenReturn(Mono.just(expectedDirectors));
+        when(directorService.getDirectors(4))
+                .thenReturn(Mono.just(new DirectorsResult(expectedDirectors, true, 1, null)));
 
         // When & Then
         webTestClient.get()
@@ -37,7 +67,135 @@ class DirectorControllerIntegrationTest {
                 .expectBody()
                 .jsonPath("$.directors").isArray()
                 .jsonPath("$.directors[0]").isEqualTo("Martin Scorsese")
-                .jsonPath("$.directors[1]").isEqualTo("Woody Allen");
+                .jsonPath("$.directors[1]").isEqualTo("Woody Allen")
+                .jsonPath("$.complete").isEqualTo(true);
+    }
+
+    @Test
+    void getDirectorsAboveThreshold_WithPartialCatalog_ReportsIncomplete() {
+        // Given
+        when(directorService.getDirectors(4))
+                .thenReturn(Mono.just(new DirectorsResult(List.of("Woody Allen"), false, 2, null)));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/directors?threshold=4")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.directors[0]").isEqualTo("Woody Allen")
+                .jsonPath("$.complete").isEqualTo(false);
+    }
+
+    @Test
+    void getDirectorsAboveThreshold_WithMatchingETag_ReturnsNotModified() {
+        // Given
+        Instant freshUntil = Instant.now().plusSeconds(120);
+        when(directorService.getDirectors(4))
+                .thenReturn(Mono.just(new DirectorsResult(List.of("Woody Allen"), true, 7, freshUntil)));
+        String etag = webTestClient.get()
+                .uri("/api/directors?threshold=4")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.CACHE_CONTROL, cacheControl -> {
+                    assertTrue(cacheControl.startsWith("max-age="));
+                    assertTrue(cacheControl.endsWith(", public"));
+                })
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        // When & Then
+        assertTrue(etag.startsWith("\"7-") && etag.endsWith("-t4\""));
+        webTestClient.get()
+                .uri("/api/directors?threshold=4")
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+        webTestClient.get()
+                .uri("/api/directors?threshold=4")
+                .ifNoneMatch(etag.replace("\"7-", "\"6-"))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void getDirectorsAboveThreshold_WithMatchingETag_AnswersWithoutSerializingTheBody() {
+        // Given
+        Instant freshUntil = Instant.now().plusSeconds(120);
+        when(directorService.getDirectors(5))
+                .thenReturn(Mono.just(new DirectorsResult(List.of("Woody Allen"), true, 1000, freshUntil)));
+        String etag = "\"1000-" + Long.toString(freshUntil.toEpochMilli(), 36) + "-t5\"";
+        long cachedBytes = responseCache.size();
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/directors?threshold=5")
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody().isEmpty();
+        assertEquals(cachedBytes, responseCache.size());
+    }
+
+    @Test
+    void getDirectorsAboveThreshold_WhenClientAcceptsGzip_SendsTheCompressedCopy() throws IOException {
+        // Given
+        List<String> directors = IntStream.range(0, 200).mapToObj(i -> "Director " + i).sorted().toList();
+        when(directorService.getDirectors(1)).thenReturn(Mono.just(
+                new DirectorsResult(directors, true, 3, Instant.now().plusSeconds(120))));
+
+        // When
+        EntityExchangeResult<byte[]> compressed = webTestClient.get()
+                .uri("/api/directors?threshold=1")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .expectBody().returnResult();
+        EntityExchangeResult<byte[]> plain = webTestClient.get()
+                .uri("/api/directors?threshold=1")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+                .expectBody().returnResult();
+
+        // Then
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed.getResponseBody()))) {
+            assertArrayEquals(plain.getResponseBody(), gzip.readAllBytes());
+        }
+        assertTrue(new String(plain.getResponseBody(), StandardCharsets.UTF_8).startsWith("{\"directors\":[\"Director 0\""));
+        assertTrue(compressed.getResponseHeaders().getETag().endsWith("-t1-gz\""));
+    }
+
+    @Test
+    void getDirectorsAboveThreshold_WithPartialCatalog_AsksClientsToRevalidate() {
+        // Given
+        when(directorService.getDirectors(4)).thenReturn(Mono.just(
+                new DirectorsResult(List.of("Woody Allen"), false, 2, Instant.now().plusSeconds(120))));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/directors?threshold=4")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().cacheControl(CacheControl.noCache());
+    }
+
+    @Test
+    void getDirectorsAboveThreshold_WithUpstreamUnavailable_ReturnsServiceUnavailable() {
+        // Given
+        when(directorService.getDirectors(anyInt()))
+                .thenReturn(Mono.error(new UpstreamUnavailableException("Upstream circuit is open")));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/directors?threshold=1")
+                .exchange()
+                .expectStatus().isEqualTo(503);
     }
 
     @Test
@@ -70,7 +228,7 @@ class DirectorControllerIntegrationTest {
     @Test
     void getDirectorsAboveThreshold_WithServiceError_ReturnsInternalServerError() {
         // Given
-        when(directorService.getDirectorsAboveThreshold(anyInt()))
+        when(directorService.getDirectors(anyInt()))
                 .thenReturn(Mono.error(new RuntimeException("Service error")));
 
         // When & Then
@@ -79,4 +237,102 @@ class DirectorControllerIntegrationTest {
                 .exchange()
                 .expectStatus().is5xxServerError();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getDirectorsAboveThresholds_WithListAndRange_AnswersTheirUnion() {
+        // Given
+        SortedMap<Integer, List<String>> answers = new TreeMap<>(Map.of(
+                1, List.of("Martin Scorsese", "Woody Allen"), 2, List.of("Woody Allen"),
+                3, List.of("Woody Allen"), 10, List.of()));
+        when(directorService.getDirectorsBatch(Set.of(1, 2, 3, 10)))
+                .thenReturn(Mono.just(new DirectorsBatchResult(answers, true, 1, null)));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/directors/batch?thresholds=10,2&from=1&to=3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.directors.1[0]").isEqualTo("Martin Scorsese")
+                .jsonPath("$.directors.3[0]").isEqualTo("Woody Allen")
+                .jsonPath("$.directors.10").isEmpty()
+                .jsonPath("$.complete").isEqualTo(true);
+    }
+
+    @Test
+    void getDirectorsAboveThresholds_WithInvalidThresholds_ReturnsBadRequest() {
+        // When & Then
+        webTestClient.get().uri("/api/directors/batch").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/directors/batch?thresholds=1,-2").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/directors/batch?from=5&to=1").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/directors/batch?from=0&to=5000").exchange().expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("At most 1000 thresholds per request.");
+    }
+
+    @Test
+    void getTopDirectors_ReturnsDirectorsWithCounts() {
+        // Given
+        when(directorService.getTopDirectors(2)).thenReturn(Mono.just(new TopDirectorsResult(
+                List.of(new DirectorCount("Woody Allen", 6), new DirectorCount("Martin Scorsese", 5)), true, 1, null)));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/directors/top?k=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.directors[0].director").isEqualTo("Woody Allen")
+                .jsonPath("$.directors[0].movies").isEqualTo(6)
+                .jsonPath("$.directors[1].director").isEqualTo("Martin Scorsese");
+    }
+
+    @Test
+    void getTopDirectors_WithKOutOfRange_ReturnsBadRequest() {
+        // When & Then
+        webTestClient.get().uri("/api/directors/top?k=0").exchange().expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Invalid k parameter: must be greater than or equal to 1");
+        webTestClient.get().uri("/api/directors/top?k=10001").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void streamDirectorsAboveThreshold_AsServerSentEvents_NamesEachEvent() {
+        // Given
+        when(directorService.streamDirectors(4)).thenReturn(Flux.just(
+                DirectorEvent.progress(1, 2), DirectorEvent.director("Woody Allen"), DirectorEvent.done(1, true)));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/directors/stream?threshold=4")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBody(String.class)
+                .value(body -> {
+                    assertTrue(body.contains("event:progress\ndata:{\"type\":\"progress\",\"pagesFetched\":1,\"totalPages\":2}"));
+                    assertTrue(body.contains("event:director\ndata:{\"type\":\"director\",\"director\":\"Woody Allen\"}"));
+                    assertTrue(body.contains("event:done"));
+                });
+    }
+
+    @Test
+    void streamDirectorsAboveThreshold_AsNdjson_EndsWithErrorEventOnFailure() {
+        // Given
+        when(directorService.streamDirectors(4)).thenReturn(Flux.concat(
+                Flux.just(DirectorEvent.progress(1, 3)),
+                Flux.error(new UpstreamUnavailableException("Upstream circuit is open"))));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/directors/stream?threshold=4")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(DirectorEvent.class)
+                .value(events -> {
+                    assertEquals(2, events.size());
+                    assertEquals(DirectorEvent.Type.ERROR, events.get(1).getType());
+                    assertEquals("Upstream movie API unavailable", events.get(1).getError());
+                });
+    }
+}
@@ -0,0 +1,73 @@
+package domus.challenge.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import domus.challenge.config.ResponseCacheProperties;
+import domus.challenge.service.DirectorsResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectorsResponseCacheTest {
+
+    private final ResponseCacheProperties properties = new ResponseCacheProperties();
+
+    @Test
+    void body_WithSameSnapshotAndThreshold_ReusesTheSerializedBytes() {
+        // Given
+        DirectorsResponseCache cache = new DirectorsResponseCache(new ObjectMapper(), properties);
+        DirectorsResult result = createResult(1, "Martin Scorsese", "Woody Allen");
+
+        // When
+        DirectorsResponseCache.Body first = cache.body(result, 4);
+        DirectorsResponseCache.Body second = cache.body(result, 4);
+
+        // Then
+        assertSame(first.getJson(), second.getJson());
+        assertEquals("{\"directors\":[\"Martin Scorsese\",\"Woody Allen\"],\"complete\":true}", new String(first.getJson()));
+        assertNull(first.getGzip());
+    }
+
+    @Test
+    void body_WithNewerSnapshot_DropsTheBodiesOfTheOlderOne() {
+        // Given
+        DirectorsResponseCache cache = new DirectorsResponseCache(new ObjectMapper(), properties);
+        DirectorsResponseCache.Body old = cache.body(createResult(1, "Woody Allen"), 4);
+
+        // When
+        DirectorsResponseCache.Body refreshed = cache.body(createResult(2, "Martin Scorsese"), 4);
+        DirectorsResponseCache.Body late = cache.body(createResult(1, "Woody Allen"), 4);
+
+        // Then
+        assertNotSame(old.getJson(), refreshed.getJson());
+        assertSame(refreshed.getJson(), cache.body(createResult(2, "Martin Scorsese"), 4).getJson());
+        // A request still holding the older snapshot is answered but not cached
+        assertNotSame(old.getJson(), late.getJson());
+        assertEquals(refreshed.getJson().length, cache.size());
+    }
+
+    @Test
+    void body_BeyondMaxSize_EvictsLeastRecentlyUsedThreshold() {
+        // Given
+        properties.setMaxSize(DataSize.ofBytes(100));
+        DirectorsResponseCache cache = new DirectorsResponseCache(new ObjectMapper(), properties);
+        DirectorsResult result = createResult(1, "Woody Allen");
+        DirectorsResponseCache.Body first = cache.body(result, 1);
+        DirectorsResponseCache.Body second = cache.body(result, 2);
+        cache.body(result, 1);
+
+        // When
+        cache.body(result, 3);
+
+        // Then
+        assertTrue(cache.size() <= 100);
+        assertSame(first.getJson(), cache.body(result, 1).getJson());
+        assertNotSame(second.getJson(), cache.body(result, 2).getJson());
+    }
+
+    private DirectorsResult createResult(long version, String... directors) {
+        return new DirectorsResult(List.of(directors), true, version, null);
+    }
+}
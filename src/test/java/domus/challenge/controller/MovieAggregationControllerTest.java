@@ -0,0 +1,85 @@
+package domus.challenge.controller;
+
+import domus.challenge.catalog.MovieField;
+import domus.challenge.catalog.MovieQuery;
+import domus.challenge.model.GroupCount;
+import domus.challenge.model.MovieAggregationResponse;
+import domus.challenge.service.MovieQueryService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(MovieAggregationController.class)
+@TestPropertySource(properties = "catalog.movie-table.enabled=true")
+class MovieAggregationControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private MovieQueryService movieQueryService;
+
+    @Test
+    void aggregate_WithFilters_PassesThemToTheQuery() {
+        // Given
+        when(movieQueryService.aggregate(any(MovieQuery.class))).thenReturn(Mono.just(
+                new MovieAggregationResponse("director", List.of(new GroupCount("Woody Allen", 4)), true)));
+
+        // When
+        webTestClient.get()
+                .uri("/api/movies/aggregate?groupBy=Director&genre=Drama,Crime&yearFrom=2001&threshold=3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.groupBy").isEqualTo("director")
+                .jsonPath("$.groups[0].value").isEqualTo("Woody Allen")
+                .jsonPath("$.groups[0].movies").isEqualTo(4)
+                .jsonPath("$.complete").isEqualTo(true);
+
+        // Then
+        ArgumentCaptor<MovieQuery> query = ArgumentCaptor.forClass(MovieQuery.class);
+        verify(movieQueryService).aggregate(query.capture());
+        assertEquals(MovieField.DIRECTOR, query.getValue().getGroupBy());
+        assertEquals(List.of("Drama", "Crime"), query.getValue().getValueFilters().get(MovieField.GENRE));
+        assertEquals(new MovieQuery.Range(2001, Integer.MAX_VALUE), query.getValue().getRangeFilters().get(MovieField.YEAR));
+        assertEquals(3, query.getValue().getThreshold());
+    }
+
+    @Test
+    void aggregate_WithUnknownGroupBy_ReturnsBadRequest() {
+        // When & Then
+        webTestClient.get()
+                .uri("/api/movies/aggregate?groupBy=studio")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").value(message -> assertEquals(
+                        "Invalid groupBy parameter. Expected one of: director, rated, genre, writer, actor, year, runtime",
+                        message));
+        verifyNoInteractions(movieQueryService);
+    }
+
+    @Test
+    void aggregate_WithoutGroupBy_ReturnsBadRequest() {
+        // When & Then
+        webTestClient.get()
+                .uri("/api/movies/aggregate?genre=Drama")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Required query parameter 'groupBy' is not present.");
+    }
+}
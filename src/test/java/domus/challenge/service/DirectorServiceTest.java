@@ -1,31 +1,60 @@
 package domus.challenge.service;
 
+import domus.challenge.catalog.CatalogCache;
+import domus.challenge.catalog.CatalogSnapshot;
+import domus.challenge.catalog.CatalogSnapshotFile;
+import domus.challenge.catalog.DirectorAggregator;
+import domus.challenge.catalog.DirectorIndex;
+import domus.challenge.client.DirectorPage;
+import domus.challenge.client.MovieCatalogClient;
+import domus.challenge.config.CatalogProperties;
+import domus.challenge.model.DirectorEvent;
 import domus.challenge.model.Movie;
-import domus.challenge.model.MovieApiResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class DirectorServiceTest {
 
     @Mock
-    private WebClient webClient;
+    private CatalogCache catalogCache;
 
+    @Mock
+    private MovieCatalogClient catalogClient;
+
+    private DirectorAggregator directorAggregator;
     private DirectorService directorService;
 
     @BeforeEach
     void setUp() {
-        directorService = new DirectorService(webClient);
+        directorAggregator = new DirectorAggregator(new CatalogProperties());
+        directorService = new DirectorService(catalogCache, directorAggregator);
+    }
+
+    @AfterEach
+    void tearDown() {
+        directorAggregator.stop();
     }
 
     @Test
@@ -37,6 +66,97 @@ class DirectorServiceTest {
         StepVerifier.create(result)
                 .expectNext(List.of())
                 .verifyComplete();
+        verifyNoInteractions(catalogCache);
+    }
+
+    @Test
+    void getDirectorsAboveThreshold_ReadsFromCatalogSnapshot() {
+        // Given
+        List<Movie> movies = List.of(
+                createMovie("Movie1", "Director A"),
+                createMovie("Movie2", "Director A"),
+                createMovie("Movie3", "Director B")
+        );
+        when(catalogCache.snapshot())
+                .thenReturn(Mono.just(new CatalogSnapshot(1, Instant.now(), DirectorIndex.fromMovies(movies), movies.size())));
+
+        // When & Then
+        StepVerifier.create(directorService.getDirectorsAboveThreshold(1))
+                .expectNext(List.of("Director A"))
+                .verifyComplete();
+    }
+
+    @Test
+    void getDirectorsBatch_AnswersEveryThresholdFromOneSnapshot() {
+        // Given
+        when(catalogCache.snapshot()).thenReturn(Mono.just(createSnapshot()));
+
+        // When & Then
+        StepVerifier.create(directorService.getDirectorsBatch(List.of(2, -1, 0, 3)))
+                .assertNext(result -> {
+                    assertEquals(Map.of(-1, List.of(), 0, List.of("Director A", "Director B"),
+                            2, List.of("Director A"), 3, List.of()), result.getDirectorsByThreshold());
+                    assertEquals(1, result.getSnapshotVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getDirectors_WithConcurrentIdenticalRequestsOnAMiss_SharesOneAnswer() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DirectorService coalescing = new DirectorService(catalogCache, directorAggregator, meterRegistry);
+        Sinks.One<CatalogSnapshot> crawl = Sinks.one();
+        when(catalogCache.snapshot()).thenReturn(crawl.asMono());
+
+        // When
+        CompletableFuture<DirectorsResult> first = coalescing.getDirectors(0).toFuture();
+        CompletableFuture<DirectorsResult> second = coalescing.getDirectors(0).toFuture();
+        crawl.tryEmitValue(createSnapshot());
+
+        // Then
+        assertSame(first.join(), second.join());
+        assertEquals(List.of("Director A", "Director B"), first.join().getDirectors());
+        verify(catalogCache, times(1)).snapshot();
+        assertEquals(1, meterRegistry.get("directors.requests.coalesced").counter().count());
+    }
+
+    @Test
+    void streamDirectors_WithCachedSnapshot_StreamsSortedDirectorsThenDone() {
+        // Given
+        when(catalogCache.current()).thenReturn(createSnapshot());
+        when(catalogCache.snapshot()).thenReturn(Mono.just(createSnapshot()));
+
+        // When & Then
+        StepVerifier.create(directorService.streamDirectors(0))
+                .assertNext(event -> assertEquals("Director A", event.getDirector()))
+                .assertNext(event -> assertEquals("Director B", event.getDirector()))
+                .assertNext(event -> {
+                    assertEquals(DirectorEvent.Type.DONE, event.getType());
+                    assertEquals(2, event.getDirectorCount());
+                    assertTrue(event.getComplete());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void streamDirectors_WhileCrawling_ReportsProgressAndProvisionalDirectors() {
+        // Given
+        CatalogProperties properties = new CatalogProperties();
+        CatalogCache coldCache = new CatalogCache(catalogClient, properties, new CatalogSnapshotFile(properties),
+                new SimpleMeterRegistry());
+        when(catalogClient.fetchPages()).thenReturn(Flux.just(
+                new DirectorPage(1, 2, List.of("Director B", "Director A")),
+                new DirectorPage(2, 2, List.of("Director A", "Director B", "Director A"))));
+        DirectorService coldService = new DirectorService(coldCache, directorAggregator);
+
+        // When
+        List<DirectorEvent> events = coldService.streamDirectors(2).collectList().block();
+
+        // Then
+        assertEquals(List.of("progress:1/2", "provisional:Director A", "progress:2/2",
+                "director:Director A", "done:1"), events.stream().map(this::describe).toList());
+        assertEquals(1, coldCache.current().getVersion());
     }
 
     @Test
@@ -98,6 +218,45 @@ class DirectorServiceTest {
         assertTrue(result.contains("Director A"));
     }
 
+    @Test
+    void processDirectors_OnNonBlockingThread_CountsWithoutBlocking() {
+        // Given
+        CatalogProperties properties = new CatalogProperties();
+        properties.getAggregation().setParallelThreshold(1);
+        properties.getAggregation().setParallelism(2);
+        DirectorAggregator parallelAggregator = new DirectorAggregator(properties);
+        DirectorService parallelService = new DirectorService(catalogCache, parallelAggregator);
+        List<Movie> movies = List.of(
+                createMovie("Movie1", "Director A"),
+                createMovie("Movie2", "Director A"),
+                createMovie("Movie3", "Director B"));
+
+        try {
+            // When
+            Mono<List<String>> result = Mono.fromCallable(() -> parallelService.processDirectors(movies, 1))
+                    .subscribeOn(Schedulers.parallel());
+
+            // Then
+            StepVerifier.create(result)
+                    .expectNext(List.of("Director A"))
+                    .verifyComplete();
+        } finally {
+            parallelAggregator.stop();
+        }
+    }
+
+    private CatalogSnapshot createSnapshot() {
+        return new CatalogSnapshot(1, Instant.now(), DirectorIndex.of(Map.of("Director B", 2, "Director A", 3)), 5);
+    }
+
+    private String describe(DirectorEvent event) {
+        return switch (event.getType()) {
+            case PROGRESS -> "progress:" + event.getPagesFetched() + "/" + event.getTotalPages();
+            case DONE -> "done:" + event.getDirectorCount();
+            default -> event.getType().eventName() + ":" + event.getDirector();
+        };
+    }
+
     private Movie createMovie(String title, String director) {
         Movie movie = new Movie();
         movie.setTitle(title);
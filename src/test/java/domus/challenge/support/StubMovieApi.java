@@ -0,0 +1,180 @@
+package domus.challenge.support;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the upstream /api/movies/search endpoint with a deterministic catalog.
+ * Pages are rendered once up front so the stub itself costs almost nothing per request.
+ */
+public class StubMovieApi implements AutoCloseable {
+
+    private static final List<String> GENRES = List.of("Drama", "Comedy", "Action", "Crime", "Romance", "Thriller");
+    private final int totalPages;
+    private final int perPage;
+    private final int directorCardinality;
+    private final byte[][] pages;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    private volatile Duration latency = Duration.ZERO;
+    // Mean of an exponentially distributed delay added on top of the fixed latency: a long tail
+    private volatile Duration latencyJitter = Duration.ZERO;
+    // Share of requests answered with 503
+    private volatile double errorRate;
+    // Answered with the headers and half the body, then nothing more; 0 for none
+    private volatile int stalledPage;
+    // Answered with 304 whatever the request carried; 0 for none
+    private volatile int notModifiedPage;
+    private DisposableServer server;
+
+    public StubMovieApi(int totalPages, int perPage, int directorCardinality) {
+        this.totalPages = totalPages;
+        this.perPage = perPage;
+        this.directorCardinality = directorCardinality;
+        this.pages = new byte[totalPages + 1][];
+        for (int page = 1; page <= totalPages; page++) {
+            pages[page] = renderPage(page).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    public StubMovieApi start() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.get("/api/movies/search", this::handle))
+                .bindNow();
+        return this;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    public void setLatencyJitter(Duration latencyJitter) {
+        this.latencyJitter = latencyJitter;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public void setStalledPage(int stalledPage) {
+        this.stalledPage = stalledPage;
+    }
+
+    public void setNotModifiedPage(int notModifiedPage) {
+        this.notModifiedPage = notModifiedPage;
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    public long failedRequestCount() {
+        return failedRequests.get();
+    }
+
+    public int totalPages() {
+        return totalPages;
+    }
+
+    public long totalMovies() {
+        return (long) totalPages * perPage;
+    }
+
+    // Director of the n-th movie in the catalog, spread over directorCardinality names
+    public String directorOf(long movie) {
+        return "Director " + Math.floorMod(movie * 2654435761L, directorCardinality);
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    private Publisher<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        requests.incrementAndGet();
+        List<String> pageParam = new QueryStringDecoder(request.uri()).parameters().get("page");
+        int page = pageParam == null ? 1 : Integer.parseInt(pageParam.get(0));
+        byte[] body = page >= 1 && page <= totalPages ? pages[page] : renderEmptyPage(page);
+        Duration delay = nextDelay();
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            failedRequests.incrementAndGet();
+            return Mono.delay(delay).then(response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send());
+        }
+        if (page == notModifiedPage) {
+            return response.status(HttpResponseStatus.NOT_MODIFIED).send();
+        }
+        if (page == stalledPage) {
+            return response.status(HttpResponseStatus.OK)
+                    .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                    .header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(body.length))
+                    .sendByteArray(Flux.concat(Mono.just(Arrays.copyOf(body, body.length / 2)), Mono.never()));
+        }
+        Mono<byte[]> payload = delay.isZero() ? Mono.just(body) : Mono.delay(delay).thenReturn(body);
+        return response.status(HttpResponseStatus.OK)
+                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .sendByteArray(payload);
+    }
+
+    private Duration nextDelay() {
+        Duration jitter = latencyJitter;
+        if (jitter.isZero()) {
+            return latency;
+        }
+        double exponential = -Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        return latency.plusNanos((long) (exponential * jitter.toNanos()));
+    }
+
+    private String renderPage(int page) {
+        StringBuilder json = new StringBuilder(perPage * 300);
+        json.append("{\"page\":").append(page)
+                .append(",\"per_page\":").append(perPage)
+                .append(",\"total\":").append(totalMovies())
+                .append(",\"total_pages\":").append(totalPages)
+                .append(",\"data\":[");
+        for (int i = 0; i < perPage; i++) {
+            long movie = (long) (page - 1) * perPage + i;
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"Title\":\"Movie ").append(movie)
+                    .append("\",\"Year\":").append(2010 + movie % 15)
+                    .append(",\"Rated\":\"PG-13\",\"Released\":\"01 Jan 2015\",\"Runtime\":\"")
+                    .append(80 + movie % 70).append(" min\"")
+                    .append(",\"Genre\":\"").append(GENRES.get((int) (movie % GENRES.size())))
+                    .append(", ").append(GENRES.get((int) ((movie / 7) % GENRES.size())))
+                    .append("\",\"Director\":\"").append(directorOf(movie))
+                    .append("\",\"Writer\":\"Writer ").append(movie % 997)
+                    .append("\",\"Actors\":\"Actor ").append(movie % 101).append(", Actor ").append(movie % 103)
+                    .append(", Actor ").append(movie % 107).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private byte[] renderEmptyPage(int page) {
+        return ("{\"page\":" + page + ",\"per_page\":" + perPage + ",\"total\":" + totalMovies()
+                + ",\"total_pages\":" + totalPages + ",\"data\":[]}").getBytes(StandardCharsets.UTF_8);
+    }
+}